@@ -0,0 +1,103 @@
+package edu.fafic.benchmark;
+
+import java.util.Random;
+
+public enum Corpus {
+
+    IDENTIFIERS {
+        @Override
+        void append(StringBuilder out, Random random) {
+            String name = pick(random, NAMES);
+            String other = pick(random, NAMES);
+
+            switch (random.nextInt(4)) {
+                case 0 -> out.append("private final String ").append(name).append(";\n");
+                case 1 -> out.append("this.").append(name).append(" = ").append(other).append(";\n");
+                case 2 -> out.append("return ").append(name).append(".").append(other).append("(").append(name).append(");\n");
+                default -> out.append("if (").append(name).append(") { ").append(other).append("(); }\n");
+            }
+        }
+    },
+
+    OPERATORS {
+        @Override
+        void append(StringBuilder out, Random random) {
+            out.append(pick(random, NAMES));
+            for (int i = 0; i < 6; i++) {
+                out.append(' ').append(pick(random, OPERATOR_TEXT)).append(' ').append(pick(random, NAMES));
+            }
+            out.append(";\n");
+        }
+    },
+
+    LITERALS {
+        @Override
+        void append(StringBuilder out, Random random) {
+            out.append(pick(random, NAMES)).append(" = ").append(pick(random, LITERAL_TEXT)).append(";\n");
+        }
+    },
+
+    COMMENTS {
+        @Override
+        void append(StringBuilder out, Random random) {
+            if (random.nextBoolean()) {
+                out.append("// ").append(words(random, 12)).append('\n');
+            } else {
+                out.append("/* ").append(words(random, 8)).append('\n').append(words(random, 8)).append(" */\n");
+            }
+            out.append(pick(random, NAMES)).append("();\n");
+        }
+    },
+
+    LONG_STRINGS {
+        @Override
+        void append(StringBuilder out, Random random) {
+            out.append(pick(random, NAMES)).append(" = \"");
+            int length = 200 + random.nextInt(800);
+            for (int i = 0; i < length; i++) {
+                out.append((char) ('a' + random.nextInt(26)));
+            }
+            out.append("\";\n");
+        }
+    };
+
+    private static final String[] NAMES = {
+            "i", "value", "count", "name", "index", "result", "buffer", "length", "size", "next",
+            "isEmpty", "toString", "hashCode", "offset", "token", "lexer", "source", "state", "type", "ctx"
+    };
+
+    private static final String[] OPERATOR_TEXT = {
+            "+", "-", "*", "/", "%", "==", "!=", "<", "<=", ">", ">=", "&&", "||", "&", "|", "^",
+            "+=", "-=", "*=", "/=", "&=", "|=", "?", ":", "->"
+    };
+
+    private static final String[] LITERAL_TEXT = {
+            "0", "42", "1_000_000", "123456789L", "3.14", "2.5f", "1.0d", "'a'", "'z'", "\"text\"",
+            "\"hello world\"", "true", "false", "null"
+    };
+
+    abstract void append(StringBuilder out, Random random);
+
+    public String generate(int size) {
+        Random random = new Random(size + ordinal());
+        StringBuilder out = new StringBuilder(size + 1024);
+
+        while (out.length() < size) {
+            append(out, random);
+        }
+        return out.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) out.append(' ');
+            out.append(pick(random, NAMES));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package edu.fafic.benchmark;
+
+import edu.fafic.core.Engine;
+import edu.fafic.core.Lexer;
+import edu.fafic.source.ReaderSource;
+import edu.fafic.token.Token;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+// The "bytes" and "tokens" counters are reported per second, gc.alloc.rate.norm / tokens is bytes per token
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LexerBenchmark {
+
+    private static final int SIZE = 1 << 20;
+    private static final int BATCH = 4096;
+
+    @Param({"IDENTIFIERS", "OPERATORS", "LITERALS", "COMMENTS", "LONG_STRINGS"})
+    public Corpus corpus;
+
+    @Param({"STATES", "TABLE"})
+    public Engine engine;
+
+    private String text;
+    private final int[] types = new int[BATCH];
+    private final int[] offsets = new int[BATCH];
+    private final int[] lengths = new int[BATCH];
+
+    @Setup
+    public void setup() {
+        text = corpus.generate(SIZE);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        public long bytes;
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            tokens = 0;
+        }
+    }
+
+    @Benchmark
+    public int nextToken(Counters counters) {
+        Lexer lexer = new Lexer(new ReaderSource(new StringReader(text)), engine);
+        int n = 0;
+        Token token;
+
+        do {
+            token = lexer.nextToken();
+            n++;
+        } while (!token.isEOF());
+
+        counters.bytes += text.length();
+        counters.tokens += n;
+        return n;
+    }
+
+    @Benchmark
+    public int tokenizeAll(Counters counters) {
+        Lexer lexer = new Lexer(new ReaderSource(new StringReader(text)), engine);
+        int n = lexer.tokenizeAll().size();
+
+        counters.bytes += text.length();
+        counters.tokens += n;
+        return n;
+    }
+
+    @Benchmark
+    public int nextTokens(Counters counters) {
+        Lexer lexer = new Lexer(new ReaderSource(new StringReader(text)), engine);
+        int total = 0;
+        int n;
+
+        while ((n = lexer.nextTokens(types, offsets, lengths)) > 0) {
+            total += n;
+        }
+
+        counters.bytes += text.length();
+        counters.tokens += total;
+        return total;
+    }
+}
@@ -0,0 +1,108 @@
+package edu.fafic.benchmark;
+
+import edu.fafic.token.Type;
+import edu.fafic.vocabulary.Alphabet;
+import edu.fafic.vocabulary.Keywords;
+import edu.fafic.vocabulary.Operators;
+import edu.fafic.vocabulary.Punctuation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Every benchmark goes over a whole batch, the score is batches per microsecond
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VocabularyBenchmark {
+
+    private static final String[] WORDS = {
+            "public", "value", "class", "count", "return", "i", "this", "name", "static", "toString",
+            "int", "buffer", "null", "isEmpty", "private", "next", "final", "index", "true", "lexer"
+    };
+
+    private static final String[] OPERATORS = {
+            "=", "==", "!=", "<", "<=", "&&", "||", "!", "&", "|=", "+", "++", "-", "->", "*=", "%"
+    };
+
+    private Map<String, Type> keywordMap;
+    private Map<String, Type> literalMap;
+    private int[] chars;
+
+    @Setup
+    public void setup() {
+        keywordMap = new HashMap<>();
+        literalMap = new HashMap<>();
+
+        for (Type type : Type.values()) {
+            if (type.name().startsWith("KEYWORD_")) keywordMap.put(type.text(), type);
+        }
+        for (Type type : new Type[]{Type.LITERAL_TRUE, Type.LITERAL_FALSE, Type.LITERAL_NULL}) {
+            literalMap.put(type.text(), type);
+        }
+
+        String text = Corpus.IDENTIFIERS.generate(2048) + Corpus.OPERATORS.generate(2048);
+        chars = text.chars().toArray();
+    }
+
+    @Benchmark
+    public void keywordsResolve(Blackhole bh) {
+        for (String word : WORDS) {
+            bh.consume(Keywords.resolve(word));
+        }
+    }
+
+    // The map probes Keywords.resolve used before the perfect hash
+    @Benchmark
+    public void keywordsMapLookup(Blackhole bh) {
+        for (String word : WORDS) {
+            if (literalMap.containsKey(word)) {
+                bh.consume(literalMap.get(word));
+            } else {
+                bh.consume(keywordMap.getOrDefault(word, Type.IDENTIFIER));
+            }
+        }
+    }
+
+    @Benchmark
+    public void operatorsResolve(Blackhole bh) {
+        for (String operator : OPERATORS) {
+            bh.consume(Operators.resolve(operator));
+        }
+    }
+
+    @Benchmark
+    public int punctuationContains() {
+        int n = 0;
+        for (int ch : chars) {
+            if (Punctuation.contains(ch)) n++;
+        }
+        return n;
+    }
+
+    @Benchmark
+    public int alphabetPredicates() {
+        int n = 0;
+        for (int ch : chars) {
+            if (Alphabet.isLetter(ch)) n++;
+            if (Alphabet.isDigit(ch)) n++;
+            if (Alphabet.isWhitespace(ch)) n++;
+            if (Alphabet.isIdentifierPart(ch)) n++;
+        }
+        return n;
+    }
+}
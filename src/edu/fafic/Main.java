@@ -1,25 +1,39 @@
 package edu.fafic;
 
+import edu.fafic.core.Engine;
 import edu.fafic.core.Lexer;
+import edu.fafic.stats.HeavyHitter;
+import edu.fafic.stats.TokenStats;
 import edu.fafic.token.Token;
+import edu.fafic.token.Type;
 
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 public class Main {
+
+    private static final int TOP_IDENTIFIERS = 20;
+
     public static void main(String[] args) {
-        File file = Path.of(".code").toFile();
+        // --stats [files...] only counts the tokens, of the given files or of .code
+        if (args.length > 0 && args[0].equals("--stats")) {
+            printStats(args.length > 1 ? Arrays.stream(args, 1, args.length).map(Path::of).toList() : List.of(Path.of(".code")));
+            return;
+        }
 
-        if (!file.exists()) {
+        Path file = Path.of(".code");
+
+        if (!Files.exists(file)) {
             System.err.println("Arquivo .code não encontrado na raiz do projeto");
             return;
         }
 
-        try (Reader reader = new FileReader(file)) {
-            Lexer lexer = new Lexer(reader);
+        try {
+            Lexer lexer = Lexer.open(file);
             Token token;
 
             do {
@@ -32,4 +46,33 @@ public class Main {
         }
 
     }
+
+    private static void printStats(List<Path> files) {
+        for (Path file : files) {
+            if (!Files.isRegularFile(file) || !Files.isReadable(file)) {
+                System.err.printf("Arquivo %s não encontrado ou sem permissão de leitura%n", file);
+                return;
+            }
+        }
+
+        TokenStats stats;
+        try {
+            stats = TokenStats.of(files, Engine.TABLE, TOP_IDENTIFIERS);
+        } catch (RuntimeException e) {
+            // A file can still fail to be read after the check, text the lexer rejects is only counted as INVALID
+            if (!(e.getCause() instanceof IOException)) throw e;
+            System.err.println("Erro de leitura: " + e.getCause().getMessage());
+            return;
+        }
+
+        System.out.printf("%d arquivos, %d bytes, %d tokens%n", stats.files(), stats.units(), stats.tokens());
+        for (Map.Entry<Type, Long> entry : stats.counts().entrySet()) {
+            System.out.printf("%-28s %d%n", entry.getKey(), entry.getValue());
+        }
+
+        System.out.println("Identificadores mais frequentes:");
+        for (HeavyHitter identifier : stats.topIdentifiers()) {
+            System.out.printf("%-28s %d%n", identifier.name(), identifier.count());
+        }
+    }
 }
@@ -15,6 +15,10 @@ public enum States implements State {
             if (Alphabet.isEOF(ch)) {
                 return EOF;
             }
+            if (Alphabet.isNewline(ch)) {
+                ctx.newline(ch);
+                return INITIAL;
+            }
             if (Alphabet.isWhitespace(ch)) {
                 return INITIAL;
             }
@@ -74,7 +78,7 @@ public enum States implements State {
         @Override
         public State accept(LexingContext ctx, int ch) {
             ctx.unread(ch);
-            ctx.emit(Punctuation.resolve(ctx.lexeme()));
+            ctx.emit(Punctuation.resolve(ctx.first()));
             return FINAL;
         }
     },
@@ -88,7 +92,7 @@ public enum States implements State {
             }
 
             ctx.unread(ch);
-            ctx.emit(Keywords.resolve(ctx.lexeme()));
+            ctx.emit(Keywords.resolve(ctx.text()));
             return FINAL;
         }
     },
@@ -168,6 +172,7 @@ public enum States implements State {
         @Override
         public State accept(LexingContext ctx, int ch) {
             if (Alphabet.isNewline(ch)) {
+                ctx.newline(ch);
                 ctx.clear();
                 return INITIAL;
             }
@@ -190,6 +195,9 @@ public enum States implements State {
             if (Alphabet.isEOF(ch)) {
                 return INVALID;
             }
+            if (Alphabet.isNewline(ch)) {
+                ctx.newline(ch);
+            }
 
             return BLOCK_COMMENT;
         }
@@ -198,12 +206,19 @@ public enum States implements State {
     CHARACTER_LITERAL {
         @Override
         public State accept(LexingContext ctx, int ch) {
+            if (Alphabet.isEOF(ch)) {
+                return INVALID;
+            }
+
             ctx.append(ch);
 
             if (Alphabet.isSingleQuote(ch)) {
                 ctx.emit(Type.LITERAL_CHAR);
                 return FINAL;
             }
+            if (Alphabet.isNewline(ch)) {
+                ctx.newline(ch);
+            }
 
             int next = ctx.read();
 
@@ -244,7 +259,7 @@ public enum States implements State {
                 return RELATIONAL;
             }
 
-            ctx.emit(Operators.resolve(ctx.lexeme()));
+            ctx.emit(Operators.resolve(ctx.text()));
             return FINAL;
         }
     },
@@ -276,7 +291,7 @@ public enum States implements State {
                 ctx.unread(ch);
             }
 
-            ctx.emit(Operators.resolve(ctx.lexeme()));
+            ctx.emit(Operators.resolve(ctx.text()));
             return FINAL;
         }
     },
@@ -297,7 +312,7 @@ public enum States implements State {
                 ctx.unread(ch);
             }
 
-            ctx.emit(Operators.resolve(ctx.lexeme()));
+            ctx.emit(Operators.resolve(ctx.text()));
             return FINAL;
         }
     },
@@ -311,7 +326,7 @@ public enum States implements State {
                 ctx.unread(ch);
             }
 
-            ctx.emit(Operators.resolve(ctx.lexeme()));
+            ctx.emit(Operators.resolve(ctx.text()));
             return FINAL;
         }
     },
@@ -332,7 +347,7 @@ public enum States implements State {
                 ctx.unread(ch);
             }
 
-            ctx.emit(Operators.resolve(ctx.lexeme()));
+            ctx.emit(Operators.resolve(ctx.text()));
             return FINAL;
         }
     },
@@ -0,0 +1,407 @@
+package edu.fafic.automata;
+
+import edu.fafic.source.LineMap;
+import edu.fafic.source.Run;
+import edu.fafic.source.Source;
+import edu.fafic.token.Type;
+import edu.fafic.vocabulary.Alphabet;
+import edu.fafic.vocabulary.Keywords;
+import edu.fafic.vocabulary.Punctuation;
+
+import java.util.Arrays;
+
+// Same language as States, compiled into a [state][character class] transition table
+public final class TableAutomaton {
+
+    // Character classes
+    private static final int C_EOF = 0;
+    private static final int C_WHITESPACE = 1;
+    private static final int C_NEWLINE = 2;
+    private static final int C_DOT = 3;
+    private static final int C_PUNCTUATION = 4;
+    private static final int C_LETTER = 5;
+    private static final int C_L = 6;
+    private static final int C_F = 7;
+    private static final int C_D = 8;
+    private static final int C_UNDERLINE = 9;
+    private static final int C_DIGIT = 10;
+    private static final int C_SINGLE_QUOTE = 11;
+    private static final int C_DOUBLE_QUOTE = 12;
+    private static final int C_EQUALS = 13;
+    private static final int C_QUESTION = 14;
+    private static final int C_PLUS = 15;
+    private static final int C_MINUS = 16;
+    private static final int C_STAR = 17;
+    private static final int C_SLASH = 18;
+    private static final int C_PERCENT = 19;
+    private static final int C_LESS = 20;
+    private static final int C_GREATER = 21;
+    private static final int C_AMPERSAND = 22;
+    private static final int C_PIPE = 23;
+    private static final int C_CARET = 24;
+    private static final int C_TILDE = 25;
+    private static final int C_BANG = 26;
+    private static final int C_OTHER = 27;
+    private static final int C_MORE = 28;
+    private static final int CLASS_COUNT = 29;
+
+    // States
+    private static final int S_INITIAL = 0;
+    private static final int S_IDENTIFIER = 1;
+    private static final int S_NUMBER = 2;
+    private static final int S_DOUBLE = 3;
+    private static final int S_COMMENT = 4;
+    private static final int S_BLOCK_COMMENT = 5;
+    private static final int S_BLOCK_COMMENT_STAR = 6;
+    private static final int S_CHARACTER = 7;
+    private static final int S_CHARACTER_END = 8;
+    private static final int S_STRING = 9;
+    private static final int S_ASSIGNMENT = 10;
+    private static final int S_NOT = 11;
+    private static final int S_NOT_EQUALS = 12;
+    private static final int S_LESS = 13;
+    private static final int S_GREATER = 14;
+    private static final int S_PLUS = 15;
+    private static final int S_MINUS = 16;
+    private static final int S_STAR = 17;
+    private static final int S_SLASH = 18;
+    private static final int S_PERCENT = 19;
+    private static final int S_AMPERSAND = 20;
+    private static final int S_PIPE = 21;
+    private static final int S_CARET = 22;
+    private static final int S_TILDE = 23;
+    private static final int STATE_COUNT = 24;
+
+    // Actions, stored in the low bits of a transition
+    private static final int FAIL = 0;
+    private static final int GO = 1;          // consume and move to the next state
+    private static final int SKIP = 2;        // consume and start over, the character belongs to no token
+    private static final int EMIT = 3;        // consume and emit the type
+    private static final int EMIT_BEFORE = 4; // push back and emit the type
+    private static final int EMIT_WORD = 5;   // push back and emit a keyword, literal or identifier
+    private static final int EMIT_CHAR = 6;   // consume and emit the single character token
+    private static final int SUSPEND = 7;     // wait for more input, keeping the state to resume from
+    private static final int GO_LINE = 8;     // GO over a line break
+    private static final int SKIP_LINE = 9;   // SKIP over a line break, and over the indentation after it
+    private static final int GO_RUN = 10;     // GO to a state that has a run the source can skip in bulk
+
+    private static final int ACTION_BITS = 4;
+    private static final int STATE_BITS = 5;
+    private static final int ACTION_MASK = (1 << ACTION_BITS) - 1;
+    private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+    private static final int TYPE_SHIFT = ACTION_BITS + STATE_BITS;
+
+    private static final Type[] TYPES = Type.values();
+
+    private static final byte[] CLASSES = new byte[128];
+    private static final Type[] SINGLE = new Type[128];
+    private static final int[] TRANSITIONS = new int[STATE_COUNT * CLASS_COUNT];
+    private static final Run[] RUNS = new Run[STATE_COUNT];
+
+    static {
+        RUNS[S_COMMENT] = Run.LINE_COMMENT;
+        RUNS[S_BLOCK_COMMENT] = Run.BLOCK_COMMENT;
+        RUNS[S_STRING] = Run.STRING;
+
+        for (int ch = 0; ch < 128; ch++) {
+            CLASSES[ch] = (byte) classify(ch);
+            if (Punctuation.contains(ch)) SINGLE[ch] = Punctuation.resolve(ch);
+        }
+        SINGLE['?'] = Type.TERNARY;
+
+        Arrays.fill(TRANSITIONS, FAIL);
+
+        on(S_INITIAL, emitBefore(Type.EOF), C_EOF);
+        on(S_INITIAL, SKIP, C_WHITESPACE);
+        on(S_INITIAL, SKIP_LINE, C_NEWLINE);
+        on(S_INITIAL, EMIT_CHAR, C_DOT, C_PUNCTUATION, C_QUESTION);
+        on(S_INITIAL, go(S_IDENTIFIER), C_LETTER, C_L, C_F, C_D, C_UNDERLINE);
+        on(S_INITIAL, go(S_NUMBER), C_DIGIT);
+        on(S_INITIAL, go(S_CHARACTER), C_SINGLE_QUOTE);
+        on(S_INITIAL, go(S_STRING), C_DOUBLE_QUOTE);
+        on(S_INITIAL, go(S_ASSIGNMENT), C_EQUALS);
+        on(S_INITIAL, go(S_PLUS), C_PLUS);
+        on(S_INITIAL, go(S_MINUS), C_MINUS);
+        on(S_INITIAL, go(S_STAR), C_STAR);
+        on(S_INITIAL, go(S_SLASH), C_SLASH);
+        on(S_INITIAL, go(S_PERCENT), C_PERCENT);
+        on(S_INITIAL, go(S_LESS), C_LESS);
+        on(S_INITIAL, go(S_GREATER), C_GREATER);
+        on(S_INITIAL, go(S_AMPERSAND), C_AMPERSAND);
+        on(S_INITIAL, go(S_PIPE), C_PIPE);
+        on(S_INITIAL, go(S_CARET), C_CARET);
+        on(S_INITIAL, go(S_TILDE), C_TILDE);
+        on(S_INITIAL, go(S_NOT), C_BANG);
+
+        otherwise(S_IDENTIFIER, EMIT_WORD);
+        on(S_IDENTIFIER, go(S_IDENTIFIER), C_LETTER, C_L, C_F, C_D, C_UNDERLINE, C_DIGIT);
+
+        on(S_NUMBER, go(S_NUMBER), C_UNDERLINE, C_DIGIT);
+        on(S_NUMBER, go(S_DOUBLE), C_DOT);
+        on(S_NUMBER, emit(Type.LITERAL_LONG), C_L);
+        on(S_NUMBER, emit(Type.LITERAL_FLOAT), C_F);
+        on(S_NUMBER, emit(Type.LITERAL_DOUBLE), C_D);
+        on(S_NUMBER, emitBefore(Type.LITERAL_INTEGER), C_EOF, C_WHITESPACE, C_NEWLINE, C_PUNCTUATION);
+
+        on(S_DOUBLE, go(S_NUMBER), C_UNDERLINE);
+        on(S_DOUBLE, go(S_DOUBLE), C_DIGIT);
+        on(S_DOUBLE, emit(Type.LITERAL_FLOAT), C_F);
+        on(S_DOUBLE, emit(Type.LITERAL_DOUBLE), C_D);
+        on(S_DOUBLE, emitBefore(Type.LITERAL_DOUBLE), C_EOF, C_WHITESPACE, C_NEWLINE, C_PUNCTUATION, C_DOT);
+
+        otherwise(S_COMMENT, go(S_COMMENT));
+        on(S_COMMENT, SKIP_LINE, C_NEWLINE);
+        on(S_COMMENT, emitBefore(Type.EOF), C_EOF);
+
+        otherwise(S_BLOCK_COMMENT, go(S_BLOCK_COMMENT));
+        on(S_BLOCK_COMMENT, go(S_BLOCK_COMMENT_STAR), C_STAR);
+        on(S_BLOCK_COMMENT, goLine(S_BLOCK_COMMENT), C_NEWLINE);
+        on(S_BLOCK_COMMENT, FAIL, C_EOF);
+        otherwise(S_BLOCK_COMMENT_STAR, go(S_BLOCK_COMMENT));
+        on(S_BLOCK_COMMENT_STAR, go(S_BLOCK_COMMENT_STAR), C_STAR);
+        on(S_BLOCK_COMMENT_STAR, goLine(S_BLOCK_COMMENT), C_NEWLINE);
+        on(S_BLOCK_COMMENT_STAR, SKIP, C_SLASH);
+        on(S_BLOCK_COMMENT_STAR, FAIL, C_EOF);
+
+        otherwise(S_CHARACTER, go(S_CHARACTER_END));
+        on(S_CHARACTER, emit(Type.LITERAL_CHAR), C_SINGLE_QUOTE);
+        on(S_CHARACTER, goLine(S_CHARACTER_END), C_NEWLINE);
+        on(S_CHARACTER, FAIL, C_EOF);
+        on(S_CHARACTER_END, emit(Type.LITERAL_CHAR), C_SINGLE_QUOTE);
+
+        otherwise(S_STRING, go(S_STRING));
+        on(S_STRING, emit(Type.LITERAL_STRING), C_DOUBLE_QUOTE);
+        on(S_STRING, FAIL, C_NEWLINE, C_EOF);
+
+        operator(S_ASSIGNMENT, Type.ASSIGN, Type.RELATIONAL_EQUALS);
+        operator(S_LESS, Type.RELATIONAL_LESS, Type.RELATIONAL_LESS_EQUAL);
+        operator(S_GREATER, Type.RELATIONAL_GREATER, Type.RELATIONAL_GREATER_EQUAL);
+        otherwise(S_NOT, emitBefore(Type.LOGICAL_NOT));
+        on(S_NOT, go(S_NOT_EQUALS), C_EQUALS);
+        operator(S_NOT_EQUALS, Type.RELATIONAL_NOT_EQUALS, Type.INVALID); // "!==" is not an operator
+
+        operator(S_PLUS, Type.ADD, Type.ADD_EQUALS);
+        on(S_PLUS, emit(Type.INCREMENT), C_PLUS);
+        operator(S_MINUS, Type.SUB, Type.SUB_EQUALS);
+        on(S_MINUS, emit(Type.DECREMENT), C_MINUS);
+        on(S_MINUS, emit(Type.ARROW), C_GREATER);
+        operator(S_STAR, Type.MUL, Type.MUL_EQUALS);
+        operator(S_SLASH, Type.DIV, Type.DIV_EQUALS);
+        on(S_SLASH, go(S_COMMENT), C_SLASH);
+        on(S_SLASH, go(S_BLOCK_COMMENT), C_STAR);
+        operator(S_PERCENT, Type.MOD, Type.MOD_EQUALS);
+
+        operator(S_AMPERSAND, Type.BITWISE_AND, Type.BITWISE_AND_EQUALS);
+        on(S_AMPERSAND, emit(Type.LOGICAL_AND), C_AMPERSAND);
+        operator(S_PIPE, Type.BITWISE_OR, Type.BITWISE_OR_EQUALS);
+        on(S_PIPE, emit(Type.LOGICAL_OR), C_PIPE);
+        operator(S_CARET, Type.BITWISE_XOR, Type.BITWISE_XOR_EQUALS);
+        operator(S_TILDE, Type.BITWISE_NOT, Type.BITWISE_NOT_EQUALS);
+
+        for (int state = 0; state < STATE_COUNT; state++) {
+            on(state, SUSPEND, C_MORE);
+        }
+    }
+
+    private static final int NONE = -1;
+
+    private int start;
+    private int reach;
+    private int suspended;
+    private int suspendedFrom;
+
+    private final LineMap lines;
+
+    public TableAutomaton() {
+        this(null);
+    }
+
+    // Records every line break it consumes in the map
+    public TableAutomaton(LineMap lines) {
+        this.lines = lines;
+        this.suspended = NONE;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    // How far the last scan that returned null read before it failed
+    public int reach() {
+        return reach;
+    }
+
+    // Returns null when the input is not valid, after moving the source back to the start of the token
+    public Type scan(Source source) {
+        return scan(source, S_INITIAL, source.position());
+    }
+
+    // Same as scan, for a source positioned inside a block comment
+    public Type scanInBlockComment(Source source) {
+        return scan(source, S_BLOCK_COMMENT, source.position());
+    }
+
+    // Whether the last scan returned null because the source ran out of the input that has arrived so far
+    public boolean suspended() {
+        return suspended != NONE;
+    }
+
+    // Whether the suspended scan is between tokens or in a comment, where the text it read belongs to no token
+    public boolean suspendedBetweenTokens() {
+        return suspended == S_INITIAL || suspended == S_COMMENT || suspendedInBlockComment();
+    }
+
+    public boolean suspendedInBlockComment() {
+        return suspended == S_BLOCK_COMMENT || suspended == S_BLOCK_COMMENT_STAR;
+    }
+
+    // Moves the start of a scan suspended between tokens to the position it stopped at, so the text before it
+    // need not be kept. An unterminated block comment then fails at that position instead of where it began.
+    public void skipSuspended(int position) {
+        if (!suspendedBetweenTokens()) throw new IllegalStateException("The suspended scan is inside a token");
+        suspendedFrom = position;
+    }
+
+    // Continues a suspended scan once more input has arrived
+    public Type resume(Source source) {
+        if (suspended == NONE) throw new IllegalStateException("No scan is suspended");
+        return scan(source, suspended, suspendedFrom);
+    }
+
+    private Type scan(Source source, int initial, int from) {
+        final int[] transitions = TRANSITIONS;
+        int state = initial;
+        suspended = NONE;
+
+        while (true) {
+            int ch = source.read();
+            int transition = transitions[state * CLASS_COUNT + classOf(ch)];
+
+            switch (transition & ACTION_MASK) {
+                case GO -> state = (transition >>> ACTION_BITS) & STATE_MASK;
+                case GO_RUN -> {
+                    state = (transition >>> ACTION_BITS) & STATE_MASK;
+                    source.skip(RUNS[state]);
+                }
+                case SKIP -> {
+                    state = S_INITIAL;
+                    from = source.position();
+                }
+                case GO_LINE -> {
+                    state = (transition >>> ACTION_BITS) & STATE_MASK;
+                    if (lines != null) lines.newline(ch, source.position());
+                    if (RUNS[state] != null) source.skip(RUNS[state]);
+                }
+                case SKIP_LINE -> {
+                    state = S_INITIAL;
+                    if (lines != null) lines.newline(ch, source.position());
+                    source.skip(Run.BLANKS);
+                    from = source.position();
+                }
+                case EMIT -> {
+                    start = from;
+                    return TYPES[transition >>> TYPE_SHIFT];
+                }
+                case EMIT_BEFORE -> {
+                    source.unread(ch);
+                    Type type = TYPES[transition >>> TYPE_SHIFT];
+                    start = type == Type.EOF ? source.position() : from;
+                    return type;
+                }
+                case EMIT_WORD -> {
+                    source.unread(ch);
+                    start = from;
+                    return Keywords.resolve(source, from, source.position());
+                }
+                case EMIT_CHAR -> {
+                    start = from;
+                    return SINGLE[ch];
+                }
+                case SUSPEND -> {
+                    suspended = state;
+                    suspendedFrom = from;
+                    start = from;
+                    return null;
+                }
+                default -> {
+                    start = from;
+                    reach = source.position();
+                    source.seek(from);
+                    return null;
+                }
+            }
+        }
+    }
+
+    private static int classOf(int ch) {
+        if (ch >= 0 && ch < 128) return CLASSES[ch];
+        return classify(ch);
+    }
+
+    private static int classify(int ch) {
+        if (Alphabet.isEOF(ch)) return C_EOF;
+        if (ch == Alphabet.MORE) return C_MORE;
+        if (Alphabet.isNewline(ch)) return C_NEWLINE;
+        if (Alphabet.isWhitespace(ch)) return C_WHITESPACE;
+        if (Alphabet.isDecimalPoint(ch)) return C_DOT;
+        if (Punctuation.contains(ch)) return C_PUNCTUATION;
+        if (Alphabet.isUnderline(ch)) return C_UNDERLINE;
+        if (ch == 'l' || ch == 'L') return C_L;
+        if (ch == 'f' || ch == 'F') return C_F;
+        if (ch == 'd' || ch == 'D') return C_D;
+        if (Alphabet.isIdentifierStart(ch)) return C_LETTER;
+        if (Alphabet.isDigit(ch)) return C_DIGIT;
+        if (Alphabet.isSingleQuote(ch)) return C_SINGLE_QUOTE;
+        if (Alphabet.isDoubleQuote(ch)) return C_DOUBLE_QUOTE;
+
+        return switch (ch) {
+            case '=' -> C_EQUALS;
+            case '?' -> C_QUESTION;
+            case '+' -> C_PLUS;
+            case '-' -> C_MINUS;
+            case '*' -> C_STAR;
+            case '/' -> C_SLASH;
+            case '%' -> C_PERCENT;
+            case '<' -> C_LESS;
+            case '>' -> C_GREATER;
+            case '&' -> C_AMPERSAND;
+            case '|' -> C_PIPE;
+            case '^' -> C_CARET;
+            case '~' -> C_TILDE;
+            case '!' -> C_BANG;
+            default -> C_OTHER;
+        };
+    }
+
+    private static int go(int next) {
+        return (RUNS[next] != null ? GO_RUN : GO) | (next << ACTION_BITS);
+    }
+
+    private static int goLine(int next) {
+        return GO_LINE | (next << ACTION_BITS);
+    }
+
+    private static int emit(Type type) {
+        return EMIT | (type.ordinal() << TYPE_SHIFT);
+    }
+
+    private static int emitBefore(Type type) {
+        return EMIT_BEFORE | (type.ordinal() << TYPE_SHIFT);
+    }
+
+    private static void on(int state, int transition, int... classes) {
+        for (int cls : classes) {
+            TRANSITIONS[state * CLASS_COUNT + cls] = transition;
+        }
+    }
+
+    private static void otherwise(int state, int transition) {
+        Arrays.fill(TRANSITIONS, state * CLASS_COUNT, (state + 1) * CLASS_COUNT, transition);
+    }
+
+    // An operator that becomes another one when followed by '=', and ends before anything else
+    private static void operator(int state, Type single, Type withEquals) {
+        otherwise(state, emitBefore(single));
+        on(state, emit(withEquals), C_EQUALS);
+    }
+}
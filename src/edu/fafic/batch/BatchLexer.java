@@ -0,0 +1,168 @@
+package edu.fafic.batch;
+
+import edu.fafic.core.Diagnostic;
+import edu.fafic.core.Diagnostics;
+import edu.fafic.core.Engine;
+import edu.fafic.core.Lexer;
+import edu.fafic.exception.LexicalException;
+import edu.fafic.token.SymbolTable;
+import edu.fafic.token.TokenStream;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+// Lexes many files on a work-stealing pool, a failure in one file is reported in its result and never stops the others
+public final class BatchLexer implements AutoCloseable {
+
+    private static final long DEFAULT_IN_FLIGHT_BYTES = 256L << 20;
+
+    private final ExecutorService pool;
+    private final Engine engine;
+    private final int budget;
+    private final int maxDiagnostics; // 0 to fail a file on its first error
+    private final SymbolTable symbols; // shared by every file, null for none
+
+    public BatchLexer() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_IN_FLIGHT_BYTES, Engine.TABLE);
+    }
+
+    public BatchLexer(int parallelism, long maxInFlightBytes, Engine engine) {
+        this(parallelism, maxInFlightBytes, engine, 0);
+    }
+
+    // Lexes every file to the end, keeping up to maxDiagnostics errors per file
+    public BatchLexer(int parallelism, long maxInFlightBytes, Engine engine, int maxDiagnostics) {
+        this(parallelism, maxInFlightBytes, engine, maxDiagnostics, null);
+    }
+
+    // The symbol table is used from every worker at once, so it must be a SharedSymbolTable or similar
+    public BatchLexer(int parallelism, long maxInFlightBytes, Engine engine, int maxDiagnostics, SymbolTable symbols) {
+        if (parallelism < 1 || maxInFlightBytes < 1) {
+            throw new IllegalArgumentException("Parallelism and in-flight bytes must be positive");
+        }
+        if (maxDiagnostics < 0) {
+            throw new IllegalArgumentException("Diagnostics limit must not be negative");
+        }
+
+        this.pool = new ForkJoinPool(parallelism);
+        this.engine = engine;
+        this.budget = (int) Math.min(maxInFlightBytes, Integer.MAX_VALUE);
+        this.maxDiagnostics = maxDiagnostics;
+        this.symbols = symbols;
+    }
+
+    public static List<Path> find(Path root, String extension) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(extension))
+                    .toList();
+        }
+    }
+
+    public Summary lexTree(Path root, String extension, Consumer<FileResult> consumer) throws IOException {
+        return lex(find(root, extension), consumer);
+    }
+
+    // Results are handed to the consumer from the worker threads, in completion order
+    public Summary lex(Collection<Path> files, Consumer<FileResult> consumer) {
+        return run(List.copyOf(files), (result, index) -> consumer.accept(result));
+    }
+
+    // Keeps every token stream, so the in-flight limit does not bound the memory of the returned list
+    public List<FileResult> lexAll(List<Path> files) {
+        FileResult[] results = new FileResult[files.size()];
+
+        run(files, (result, index) -> results[index] = result);
+        return Arrays.asList(results);
+    }
+
+    public FileResult lex(Path path) {
+        long size = 0;
+
+        try {
+            size = Files.size(path);
+            // A lexer without diagnostics prints its failures, so the first error is taken from one with room for it
+            Diagnostics diagnostics = new Diagnostics(Math.max(maxDiagnostics, 1));
+            TokenStream tokens = Lexer.open(path, engine, diagnostics, symbols).tokenizeAll();
+
+            if (maxDiagnostics == 0 && !diagnostics.isEmpty()) {
+                Diagnostic first = diagnostics.list().get(0);
+                LexicalException error = new LexicalException("Lexing error: " + first.message(), first.offset());
+                return FileResult.failure(path, size, error);
+            }
+            return FileResult.success(path, size, tokens, maxDiagnostics > 0 ? diagnostics : null);
+        } catch (IOException | RuntimeException e) {
+            return FileResult.failure(path, size, e);
+        }
+    }
+
+    private Summary run(List<Path> files, ObjIntConsumer<FileResult> consumer) {
+        Semaphore inFlight = new Semaphore(budget);
+        AtomicInteger failed = new AtomicInteger();
+        LongAdder bytes = new LongAdder();
+        LongAdder tokens = new LongAdder();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(files.size());
+
+        for (int i = 0; i < files.size(); i++) {
+            Path path = files.get(i);
+            int index = i;
+            int permits = permits(path);
+            acquire(inFlight, permits);
+
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    FileResult result = lex(path);
+
+                    bytes.add(result.bytes());
+                    if (result.isSuccess()) {
+                        tokens.add(result.tokens().size());
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                    consumer.accept(result, index);
+                } finally {
+                    inFlight.release(permits);
+                }
+            }, pool));
+        }
+
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        return new Summary(files.size(), failed.get(), bytes.sum(), tokens.sum());
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private int permits(Path path) {
+        try {
+            return (int) Math.max(1, Math.min(Files.size(path), budget));
+        } catch (IOException e) {
+            return 1;
+        }
+    }
+
+    private static void acquire(Semaphore semaphore, int permits) {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for files in flight", e);
+        }
+    }
+}
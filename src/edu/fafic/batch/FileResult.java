@@ -0,0 +1,33 @@
+package edu.fafic.batch;
+
+import edu.fafic.core.Diagnostics;
+import edu.fafic.token.TokenStream;
+
+import java.nio.file.Path;
+
+// The diagnostics are null unless the batch recovers from errors
+public record FileResult(Path path, long bytes, TokenStream tokens, Diagnostics diagnostics, Exception error) {
+
+    public static FileResult success(Path path, long bytes, TokenStream tokens, Diagnostics diagnostics) {
+        return new FileResult(path, bytes, tokens, diagnostics, null);
+    }
+
+    public static FileResult failure(Path path, long bytes, Exception error) {
+        return new FileResult(path, bytes, null, null, error);
+    }
+
+    public boolean hasDiagnostics() {
+        return diagnostics != null && !diagnostics.isEmpty();
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        if (!isSuccess()) return "<{ %s, %s }>".formatted(path, error.getMessage());
+        if (hasDiagnostics()) return "<{ %s, %d tokens, %d errors }>".formatted(path, tokens.size(), diagnostics.count());
+        return "<{ %s, %d tokens }>".formatted(path, tokens.size());
+    }
+}
@@ -0,0 +1,4 @@
+package edu.fafic.batch;
+
+public record Summary(int files, int failed, long bytes, long tokens) {
+}
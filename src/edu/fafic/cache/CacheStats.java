@@ -0,0 +1,12 @@
+package edu.fafic.cache;
+
+// Disk hits are misses in memory that were found in the on-disk store, they are not counted as misses.
+// Store failures are misses whose tokens could not be written to the store, they were still returned.
+public record CacheStats(long hits, long diskHits, long misses, long evictions, long storeFailures, int entries,
+                         long bytes) {
+
+    public double hitRate() {
+        long lookups = hits + diskHits + misses;
+        return lookups == 0 ? 0 : (double) (hits + diskHits) / lookups;
+    }
+}
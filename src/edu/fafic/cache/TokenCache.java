@@ -0,0 +1,267 @@
+package edu.fafic.cache;
+
+import edu.fafic.core.Lexer;
+import edu.fafic.source.MappedSource;
+import edu.fafic.token.TokenStream;
+import edu.fafic.token.Type;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Token streams of content lexed before, keyed by the SHA-256 of the bytes, so a renamed or touched file
+// still hits and an edited one never does. Entries are evicted least recently used first once their columns
+// go over the byte budget. With a directory every stream is also written there and read back after a restart.
+// Safe to use from several threads, two threads missing the same content both lex it.
+public final class TokenCache {
+
+    private static final int MAGIC = 0x544B4E53; // "TKNS"
+    private static final int VERSION = 1; // also bump it when the lexer splits any input differently
+    private static final int ENTRY_OVERHEAD = 128; // key, map node and array headers, roughly
+    private static final int BYTES_PER_TOKEN = 1 + 4 + 4;
+
+    private static final Type[] TYPES = Type.values();
+
+    private final long budget;
+    private final Path directory; // null to keep entries in memory only
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final LongAdder hits;
+    private final LongAdder diskHits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder storeFailures;
+
+    private long bytes;
+
+    public TokenCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    public TokenCache(long maxBytes, Path directory) {
+        if (maxBytes < 0) throw new IllegalArgumentException("Byte budget must not be negative");
+
+        this.budget = maxBytes;
+        this.directory = directory;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new LongAdder();
+        this.diskHits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.storeFailures = new LongAdder();
+        this.bytes = 0;
+    }
+
+    private record Entry(byte[] types, int[] offsets, int[] lengths) {
+
+        long size() {
+            return (long) types.length * BYTES_PER_TOKEN + ENTRY_OVERHEAD;
+        }
+    }
+
+    // The stream reads lexemes from the file mapped by this call
+    public TokenStream tokenize(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to be mapped: " + path);
+            }
+
+            return tokenize(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    // UTF-8 content, token offsets are in bytes. The store is only a cache, failing to read or write it never fails
+    // the call.
+    public TokenStream tokenize(ByteBuffer content) {
+        MappedSource source = new MappedSource(content.duplicate());
+        String key = hash(content.duplicate());
+
+        Entry entry = get(key);
+        if (entry != null) {
+            hits.increment();
+            return stream(source, entry);
+        }
+
+        entry = load(key, content.remaining());
+        if (entry != null) {
+            diskHits.increment();
+            put(key, entry);
+            return stream(source, entry);
+        }
+
+        misses.increment();
+        TokenStream tokens = new Lexer(source).tokenizeAll();
+        entry = new Entry(tokens.types(), tokens.offsets(), tokens.lengths());
+
+        try {
+            store(key, entry);
+        } catch (IOException e) {
+            storeFailures.increment();
+        }
+        put(key, entry);
+        return tokens;
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits.sum(), diskHits.sum(), misses.sum(), evictions.sum(), storeFailures.sum(),
+                    entries.size(), bytes);
+        }
+    }
+
+    // Empties the memory, the on-disk store is kept
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    private static TokenStream stream(MappedSource source, Entry entry) {
+        return new TokenStream(source, entry.types(), entry.offsets(), entry.lengths());
+    }
+
+    private Entry get(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        if (entry.size() > budget) return;
+
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) bytes -= previous.size();
+            bytes += entry.size();
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > budget) {
+                bytes -= eldest.next().size();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    // A file that cannot be read or does not fit the content is a miss, it is deleted and stored again
+    private Entry load(String key, int contentLength) {
+        if (directory == null) return null;
+
+        Path file = file(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            // Written by another version, it is replaced on the next store
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+
+            // Every token but EOF has at least one unit
+            int size = in.readInt();
+            if (size < 1 || size > contentLength + 1) throw new IOException("Bad token count " + size);
+
+            byte[] types = new byte[size];
+            int[] offsets = new int[size];
+            int[] lengths = new int[size];
+
+            in.readFully(types);
+            for (int i = 0; i < size; i++) {
+                offsets[i] = in.readInt();
+            }
+            for (int i = 0; i < size; i++) {
+                lengths[i] = in.readInt();
+            }
+
+            Entry entry = new Entry(types, offsets, lengths);
+            if (!isValid(entry, contentLength)) throw new IOException("Tokens do not fit the content");
+            return entry;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Stored again over it on this miss
+            }
+            return null;
+        }
+    }
+
+    // Known types, in order, within the content and ending with EOF
+    private static boolean isValid(Entry entry, int contentLength) {
+        int end = 0;
+
+        for (int i = 0; i < entry.types().length; i++) {
+            int type = entry.types()[i];
+            int offset = entry.offsets()[i];
+            int length = entry.lengths()[i];
+
+            if (type < 0 || type >= TYPES.length) return false;
+            if (offset < end || length < 0 || length > contentLength - offset) return false;
+            end = offset + length;
+        }
+        return TYPES[entry.types()[entry.types().length - 1]] == Type.EOF;
+    }
+
+    // Written to a temporary file first, so a reader never sees half of an entry
+    private void store(String key, Entry entry) throws IOException {
+        if (directory == null) return;
+
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, key, ".tmp");
+
+        try {
+            write(temporary, entry);
+            Files.move(temporary, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    private static void write(Path file, Entry entry) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entry.types().length);
+            out.write(entry.types());
+            for (int offset : entry.offsets()) {
+                out.writeInt(offset);
+            }
+            for (int length : entry.lengths()) {
+                out.writeInt(length);
+            }
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + ".tokens");
+    }
+
+    private static String hash(ByteBuffer content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content);
+
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >>> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
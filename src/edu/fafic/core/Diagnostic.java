@@ -0,0 +1,9 @@
+package edu.fafic.core;
+
+public record Diagnostic(int offset, int length, String message) {
+
+    @Override
+    public String toString() {
+        return "<{ %d+%d, %s }>".formatted(offset, length, message);
+    }
+}
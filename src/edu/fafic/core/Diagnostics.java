@@ -0,0 +1,41 @@
+package edu.fafic.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Errors found by a recovering lexer. Only the first ones are kept, count() includes the dropped ones.
+public final class Diagnostics {
+
+    private final Diagnostic[] kept;
+    private int size;
+    private int count;
+
+    public Diagnostics(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+
+        this.kept = new Diagnostic[capacity];
+        this.size = 0;
+        this.count = 0;
+    }
+
+    void report(int offset, int length, String message) {
+        if (size < kept.length) kept[size++] = new Diagnostic(offset, length, message);
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public boolean isTruncated() {
+        return count > size;
+    }
+
+    public List<Diagnostic> list() {
+        return List.copyOf(Arrays.asList(kept).subList(0, size));
+    }
+}
@@ -0,0 +1,7 @@
+package edu.fafic.core;
+
+public enum Engine {
+
+    STATES,  // Reference automaton, one State.accept call per character
+    TABLE    // Transition table compiled from the same automaton
+}
@@ -0,0 +1,187 @@
+package edu.fafic.core;
+
+import edu.fafic.automata.TableAutomaton;
+import edu.fafic.source.GapBufferSource;
+import edu.fafic.token.TokenSpan;
+import edu.fafic.token.Type;
+
+import java.util.Arrays;
+
+// Keeps the tokens of an edited document up to date by lexing again only around each edit.
+// The automaton is back in its initial state at the end of every token, so any token end before an edit
+// is a safe restart point. Lexing stops as soon as it emits a token at the same start as a token after the
+// edit, because from there the old and the new text are scanned from the same state.
+// Text that does not lex becomes an INVALID token up to where the automaton failed, a document being typed is
+// rarely valid. It covers everything the failed scan read, so an edit that could fix it always reaches it.
+public final class IncrementalLexer {
+
+    private static final Type[] TYPES = Type.values();
+    private static final int MIN_GAP = 256;
+
+    private final GapBufferSource source;
+    private final TableAutomaton table;
+
+    // Tokens are kept in a gap buffer too. Tokens before the gap store their offset, tokens after it store
+    // their distance from the end of the text, which an edit before them does not change.
+    private byte[] types;
+    private int[] offsets;
+    private int[] lengths;
+    private int gapStart;
+    private int gapEnd;
+
+    private int start;
+
+    public IncrementalLexer(CharSequence text) {
+        this.source = new GapBufferSource(text);
+        this.table = new TableAutomaton();
+        this.types = new byte[MIN_GAP];
+        this.offsets = new int[MIN_GAP];
+        this.lengths = new int[MIN_GAP];
+        this.gapStart = 0;
+        this.gapEnd = MIN_GAP;
+
+        source.seek(0);
+        Type type;
+        do {
+            type = scan();
+            insert(type, start, source.position() - start);
+        } while (type != Type.EOF);
+    }
+
+    public record Change(int index, int removed, int inserted) {
+    }
+
+    public Change edit(int offset, int removed, CharSequence inserted) {
+        int restart = firstEndingAtOrAfter(offset);
+        int from = restart > 0 ? offset(restart - 1) + length(restart - 1) : 0;
+
+        moveGap(restart);
+        source.replace(offset, removed, inserted);
+
+        int editEnd = offset + inserted.length();
+        int length = source.length();
+        int dropped = 0;
+        int added = 0;
+
+        source.seek(from);
+        while (true) {
+            Type type = scan();
+
+            while (gapEnd < offsets.length && length - offsets[gapEnd] < start) {
+                gapEnd++;
+                dropped++;
+            }
+            if (start >= editEnd && gapEnd < offsets.length && length - offsets[gapEnd] == start) break;
+
+            insert(type, start, source.position() - start);
+            added++;
+            if (type == Type.EOF) break;
+        }
+
+        return new Change(restart, dropped, added);
+    }
+
+    public int size() {
+        return offsets.length - (gapEnd - gapStart);
+    }
+
+    public Type type(int index) {
+        return TYPES[types[physical(index)]];
+    }
+
+    public int offset(int index) {
+        int at = physical(index);
+        return index < gapStart ? offsets[at] : source.length() - offsets[at];
+    }
+
+    public int length(int index) {
+        return lengths[physical(index)];
+    }
+
+    public String lexeme(int index) {
+        return TokenSpan.lexeme(type(index), offset(index), length(index), source);
+    }
+
+    public String text() {
+        return source.toString();
+    }
+
+    private Type scan() {
+        Type type = table.scan(source);
+        start = table.start();
+        if (type != null) return type;
+
+        source.seek(table.reach());
+        return Type.INVALID;
+    }
+
+    private int physical(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Token index %d out of bounds for %d tokens".formatted(index, size()));
+        }
+        return index < gapStart ? index : index + gapEnd - gapStart;
+    }
+
+    // The first token that reaches the offset, counting the character after it that ended it
+    private int firstEndingAtOrAfter(int offset) {
+        int low = 0;
+        int high = size() - 1;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (offset(mid) + length(mid) >= offset) high = mid;
+            else low = mid + 1;
+        }
+        return low;
+    }
+
+    private void insert(Type type, int offset, int length) {
+        if (gapStart == gapEnd) grow();
+
+        types[gapStart] = (byte) type.ordinal();
+        offsets[gapStart] = offset;
+        lengths[gapStart] = length;
+        gapStart++;
+    }
+
+    private void moveGap(int index) {
+        int length = source.length();
+
+        while (gapStart > index) {
+            gapStart--;
+            gapEnd--;
+            types[gapEnd] = types[gapStart];
+            offsets[gapEnd] = length - offsets[gapStart];
+            lengths[gapEnd] = lengths[gapStart];
+        }
+        while (gapStart < index) {
+            types[gapStart] = types[gapEnd];
+            offsets[gapStart] = length - offsets[gapEnd];
+            lengths[gapStart] = lengths[gapEnd];
+            gapStart++;
+            gapEnd++;
+        }
+    }
+
+    private void grow() {
+        int tail = offsets.length - gapEnd;
+        int capacity = offsets.length * 2;
+
+        types = regrow(types, capacity, tail);
+        offsets = regrow(offsets, capacity, tail);
+        lengths = regrow(lengths, capacity, tail);
+        gapEnd = capacity - tail;
+    }
+
+    private static byte[] regrow(byte[] array, int capacity, int tail) {
+        byte[] grown = Arrays.copyOf(array, capacity);
+        System.arraycopy(array, array.length - tail, grown, capacity - tail, tail);
+        return grown;
+    }
+
+    private static int[] regrow(int[] array, int capacity, int tail) {
+        int[] grown = Arrays.copyOf(array, capacity);
+        System.arraycopy(array, array.length - tail, grown, capacity - tail, tail);
+        return grown;
+    }
+}
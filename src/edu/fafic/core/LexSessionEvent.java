@@ -0,0 +1,30 @@
+package edu.fafic.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One lexer run over one input, from the creation or reset of the lexer to EOF, or to the error that stopped it
+@Name("edu.fafic.LexSession")
+@Label("Lex Session")
+@Category("Lexer")
+@Description("A lexer run over a whole input")
+@StackTrace(false)
+final class LexSessionEvent extends jdk.jfr.Event {
+
+    @Label("Path")
+    @Description("The file lexed, empty when the input did not come from a file")
+    String path;
+
+    @Label("Input Units")
+    @Description("Input read, in bytes for a file and in chars otherwise")
+    long units;
+
+    @Label("Tokens")
+    long tokens;
+
+    @Label("Errors")
+    long errors;
+}
@@ -0,0 +1,127 @@
+package edu.fafic.core;
+
+import edu.fafic.source.Source;
+
+import java.util.Arrays;
+
+// The text the reference automaton accepted for the current token. As long as each character appended is the
+// one read right after the previous, the text is only the range of the source between two marks. A character
+// out of that order, like a digit after a skipped separator, copies the range into an array that is kept for
+// the next tokens, and the text grows there until it is cleared.
+final class Lexeme implements CharSequence {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Source source;
+
+    private int start;
+    private int end;
+    private boolean copied;
+    private char[] chars;
+    private int length;
+    private int units;
+    private int first;
+    private int last;
+
+    Lexeme(Source source) {
+        this.source = source;
+        this.chars = new char[INITIAL_CAPACITY];
+        clear();
+    }
+
+    // A code point that was read from the source between from and to
+    void append(int ch, int from, int to) {
+        if (isEmpty()) {
+            start = from;
+            end = to;
+            first = ch;
+        } else if (copied) {
+            copy(ch);
+        } else if (from == end) {
+            end = to;
+        } else {
+            copyRange();
+            copy(ch);
+        }
+
+        // Surrogates read one at a time make up one code point, like they would in a String
+        if (isSurrogatePair(last, ch)) {
+            int cp = Character.toCodePoint((char) last, (char) ch);
+            if (units == 1) first = cp;
+            last = cp;
+        } else {
+            last = ch;
+        }
+        units += Character.charCount(ch);
+    }
+
+    void clear() {
+        start = 0;
+        end = 0;
+        copied = false;
+        length = 0;
+        units = 0;
+        first = -1;
+        last = -1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return first < 0;
+    }
+
+    int first() {
+        return first;
+    }
+
+    int last() {
+        return last;
+    }
+
+    // Over a byte source the range counts bytes, which only differs from the text above ASCII
+    @Override
+    public int length() {
+        return copied ? length : end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return copied ? chars[index] : (char) source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (copied) return new String(chars, 0, length);
+        // An empty lexeme has no range, the source may not hold offset 0 anymore
+        return isEmpty() ? "" : source.text(start, end);
+    }
+
+    private static boolean isSurrogatePair(int high, int low) {
+        return high >= 0 && high <= Character.MAX_VALUE && Character.isHighSurrogate((char) high)
+                && low >= 0 && low <= Character.MAX_VALUE && Character.isLowSurrogate((char) low);
+    }
+
+    private void copyRange() {
+        String text = source.text(start, end);
+        reserve(text.length());
+        text.getChars(0, text.length(), chars, 0);
+        length = text.length();
+        copied = true;
+    }
+
+    private void copy(int ch) {
+        reserve(length + 2);
+        length += Character.toChars(ch, chars, length);
+    }
+
+    private void reserve(int capacity) {
+        if (capacity > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, capacity));
+        }
+    }
+}
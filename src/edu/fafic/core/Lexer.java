@@ -2,109 +2,467 @@ package edu.fafic.core;
 
 import edu.fafic.automata.State;
 import edu.fafic.automata.States;
+import edu.fafic.automata.TableAutomaton;
 import edu.fafic.exception.LexicalException;
+import edu.fafic.metrics.LexerMetrics;
+import edu.fafic.source.LineMap;
+import edu.fafic.source.MappedSource;
+import edu.fafic.source.ReaderSource;
+import edu.fafic.source.Source;
+import edu.fafic.token.SymbolTable;
 import edu.fafic.token.Token;
+import edu.fafic.token.TokenSpan;
+import edu.fafic.token.TokenStream;
 import edu.fafic.token.Type;
 import edu.fafic.vocabulary.Alphabet;
+import edu.fafic.vocabulary.Punctuation;
+import jdk.jfr.EventType;
 
 import java.io.IOException;
-import java.io.PushbackReader;
 import java.io.Reader;
+import java.nio.file.Path;
 
 public class Lexer {
 
-    private final PushbackReader reader;
-    private final StringBuffer buffer;
+    // Checked before any event is made, so nothing is allocated per session or token unless a recording is on
+    static final EventType SESSIONS = EventType.getEventType(LexSessionEvent.class);
+    private static final EventType SLOW_SCANS = EventType.getEventType(SlowScanEvent.class);
+
+    private Source source;
+    private final Engine engine;
+    private final TableAutomaton table;
+    private final LineMap lines;
+    private Lexeme lexeme;
     private final LexingContext ctx;
+    private final Diagnostics diagnostics; // null to fail on the first error
+    private final SymbolTable symbols; // null to leave identifiers without ids
+    private final LexerMetrics.Recorder recorder; // null when nothing is measured
+    private String path; // of the file lexed, null for other input
+    private LexSessionEvent session; // null unless a flight recording wants sessions
+    private SlowScanEvent slow; // timed again for every token until it is committed, null until the first one
 
-    private Token emitted;
+    private Type emitted;
+    private int start;
+    private int end;
+    private int reading; // where the character the reference automaton read last starts
+    private boolean inBlockComment;
+    private String failure;
 
     public Lexer(Reader in) {
-        this.reader = new PushbackReader(in);
-        this.buffer = new StringBuffer();
+        this(new ReaderSource(in));
+    }
+
+    public Lexer(Source source) {
+        this(source, Engine.TABLE);
+    }
+
+    public Lexer(Source source, Engine engine) {
+        this(source, engine, null);
+    }
+
+    // Reports errors to the diagnostics and goes on with an INVALID token instead of throwing
+    public Lexer(Source source, Engine engine, Diagnostics diagnostics) {
+        this(source, engine, diagnostics, null);
+    }
+
+    // Identifiers also get the id of their name in the symbol table, which is shared by all their tokens
+    public Lexer(Source source, Engine engine, Diagnostics diagnostics, SymbolTable symbols) {
+        this(source, engine, diagnostics, symbols, null);
+    }
+
+    // Counts tokens, input and errors into the metrics, and time per state only with Engine.STATES
+    public Lexer(Source source, Engine engine, Diagnostics diagnostics, SymbolTable symbols, LexerMetrics metrics) {
+        this.source = source;
+        this.engine = engine;
+        this.lines = new LineMap();
+        this.table = new TableAutomaton(lines);
+        this.lexeme = new Lexeme(source);
         this.ctx = new LexingContextImpl();
+        this.diagnostics = diagnostics;
+        this.symbols = symbols;
+        this.recorder = metrics != null ? metrics.recorder() : null;
         this.emitted = null;
+        this.inBlockComment = false;
+        this.failure = null;
+        this.path = null;
+        this.session = null;
+        this.slow = null;
+        beginSession();
+    }
+
+    public static Lexer open(Path path) throws IOException {
+        return open(path, Engine.TABLE);
+    }
+
+    public static Lexer open(Path path, Engine engine) throws IOException {
+        return open(path, engine, null, null);
+    }
+
+    // The path is also reported in the flight recorder events of the lexer
+    public static Lexer open(Path path, Engine engine, Diagnostics diagnostics, SymbolTable symbols) throws IOException {
+        Lexer lexer = new Lexer(MappedSource.open(path), engine, diagnostics, symbols);
+        lexer.path = path.toString();
+        return lexer;
+    }
+
+    // Line starts of the text lexed so far, to turn token and error offsets into lines and columns
+    public LineMap lines() {
+        return lines;
+    }
+
+    // Continues lexing from the start of a line, the source must allow seeking that far
+    public void seekLine(LineIndex index, int line) {
+        source.seek(index.offset(line));
+        inBlockComment = index.inBlockComment(line);
+        lines.reset(line, index.offset(line));
+        emitted = null;
+        ctx.clear();
+    }
+
+    // Lexes new input with the buffers of this lexer. A lexer made over a ReaderSource keeps that source and its
+    // window, any other source is replaced by a ReaderSource the first time.
+    public void reset(Reader in) {
+        readerSource().reset(in);
+        restart();
+    }
+
+    public void reset(CharSequence text) {
+        readerSource().reset(text);
+        restart();
+    }
+
+    public Token nextToken() {
+        scan();
+
+        ctx.clear();
+
+        if (symbols != null && emitted == Type.IDENTIFIER) {
+            int symbol = symbols.intern(source, start, end);
+            return new Token(emitted, symbols.name(symbol), start, symbol);
+        }
+        return new Token(emitted, TokenSpan.lexeme(emitted, start, end - start, source), start);
+    }
+
+    public TokenSpan nextSpan() {
+        scan();
+
+        ctx.clear();
+        return new TokenSpan(emitted, start, end - start, source);
+    }
+
+    public TokenStream tokenizeAll() {
+        TokenStream stream = new TokenStream(source);
+
+        do {
+            scan();
+            ctx.clear();
+
+            if (symbols != null && emitted == Type.IDENTIFIER) {
+                stream.add(emitted, start, end - start, symbols.intern(source, start, end));
+            } else {
+                stream.add(emitted, start, end - start);
+            }
+        } while (emitted != Type.EOF);
+
+        return stream;
+    }
+
+    // Fills the arrays with the next tokens, type ordinals in types, and returns how many were added.
+    // Stops after the EOF token, the calls after it return 0. The same arrays can be reused for every call.
+    public int nextTokens(int[] types, int[] offsets, int[] lengths) {
+        int max = Math.min(types.length, Math.min(offsets.length, lengths.length));
+        int n = 0;
+
+        while (n < max && emitted != Type.EOF) {
+            scan();
+            ctx.clear();
+
+            types[n] = emitted.ordinal();
+            offsets[n] = start;
+            lengths[n] = end - start;
+            n++;
+        }
+
+        return n;
+    }
+
+    private void commit(SlowScanEvent slow, int from) {
+        slow.path = path;
+        slow.type = emitted.name();
+        slow.offset = start;
+        slow.units = end - start;
+        slow.skippedUnits = start - from;
+        slow.commit();
+        this.slow = null;
+    }
+
+    private ReaderSource readerSource() {
+        if (source instanceof ReaderSource reader) return reader;
+
+        ReaderSource reader = new ReaderSource(Reader.nullReader());
+        source = reader;
+        lexeme = new Lexeme(reader);
+        return reader;
+    }
+
+    private void restart() {
+        if (recorder != null) recorder.flush();
+        lines.reset(0, 0);
+        lexeme.clear();
+        emitted = null;
+        inBlockComment = false;
+        failure = null;
+        path = null;
+        beginSession();
+    }
+
+    private void beginSession() {
+        if (!SESSIONS.isEnabled()) {
+            session = null;
+            return;
+        }
+
+        session = new LexSessionEvent();
+        session.units = source.position();
+        session.begin();
+    }
+
+    // Also ends a session cut short by an error, with what was lexed until then
+    private void endSession() {
+        session.path = path;
+        session.units = source.position() - session.units;
+        session.commit();
+        session = null;
     }
 
-    public Token nextToken() throws IOException {
+    // For lexers that only lex part of an input on behalf of another one, which reports the session itself
+    Lexer withoutSession() {
+        session = null;
+        return this;
+    }
+
+    private void scan() {
+        int from = source.position();
+        if (SLOW_SCANS.isEnabled()) {
+            if (slow == null) slow = new SlowScanEvent();
+            slow.begin();
+            scanToken();
+            slow.end();
+            if (slow.shouldCommit()) commit(slow, from);
+        } else {
+            scanToken();
+        }
+        if (recorder != null) recorder.token(emitted, source.position() - from);
+
+        if (session != null) {
+            session.tokens++;
+            if (emitted == Type.EOF) endSession();
+        }
+    }
+
+    private void scanToken() {
+        boolean comment = inBlockComment;
+        inBlockComment = false;
+
+        if (engine == Engine.TABLE) {
+            int from = source.position();
+            try {
+                emitted = comment ? table.scanInBlockComment(source) : table.scan(source);
+            } catch (LexicalException e) {
+                // Input that does not decode, the reference automaton finds the token it is in
+                if (diagnostics == null) throw e;
+                source.seek(from);
+                emitted = null;
+            }
+
+            if (emitted != null) {
+                start = table.start();
+                end = source.position();
+                return;
+            }
+            // The source is back at the start of the token, errors are reported by the reference automaton
+        }
+
         emitted = null;
-        State current = States.INITIAL;
+        State current = comment ? States.BLOCK_COMMENT : States.INITIAL;
+        start = source.position();
+        int from = start;
+
+        try {
+            if (recorder != null && recorder.sample()) {
+                runMeasured(current);
+            } else {
+                do {
+                    if (current == States.INITIAL) start = source.position();
+                    int ch = ctx.read();
+                    current = current.accept(ctx, ch);
+                } while (current != States.FINAL && emitted == null);
+            }
+        } catch (LexicalException e) {
+            // With diagnostics only the source throws, for input that does not decode
+            if (diagnostics == null || e.offset() < 0) throw e;
+            undecodable(e, comment && start == from);
+            return;
+        }
+
+        if (emitted == null) recover();
+    }
+
+    // The same loop, timing each stretch of characters accepted in one state
+    private void runMeasured(State current) {
+        int visits = 0;
+        long since = System.nanoTime();
 
         do {
+            if (current == States.INITIAL) start = source.position();
             int ch = ctx.read();
-            current = current.accept(ctx, ch);
+            State next = current.accept(ctx, ch);
+            visits++;
+
+            if (next != current) {
+                long now = System.nanoTime();
+                recorder.state((States) current, visits, now - since);
+                visits = 0;
+                since = now;
+            }
+            current = next;
         } while (current != States.FINAL && emitted == null);
+    }
 
-        ctx.clear();
-        return emitted;
+    // The invalid text runs from the start of the token to the next whitespace or punctuation, or to the end of
+    // the input that has arrived so far
+    private void recover() {
+        source.seek(start);
+        source.read();
+        skipInvalid(false);
+
+        emitted = Type.INVALID;
+        end = source.position();
+        diagnostics.report(start, end - start, failure);
+        failure = null;
+    }
+
+    // The token ends as INVALID after the input that does not decode. A block comment goes on after it, the rest
+    // of a line comment is skipped, anywhere else the text up to the next whitespace or punctuation is skipped.
+    private void undecodable(LexicalException e, boolean inComment) {
+        if (recorder != null) recorder.error();
+        if (session != null) session.errors++;
+
+        boolean blockComment = inComment || startsWith('/', '*', e.offset());
+        source.seek(e.offset());
+        skipUndecodable();
+        if (!blockComment) skipInvalid(startsWith('/', '/', e.offset()));
+
+        emitted = Type.INVALID;
+        end = source.position();
+        inBlockComment = blockComment;
+        diagnostics.report(start, end - start, e.getMessage());
+    }
+
+    // Whether the token opens with the two characters before the offset
+    private boolean startsWith(int first, int second, int offset) {
+        return offset - start >= 2 && source.charAt(start) == first && source.charAt(start + 1) == second;
+    }
+
+    // Up to the next whitespace or punctuation, or up to the end of the line
+    private void skipInvalid(boolean line) {
+        while (true) {
+            skipUndecodable();
+
+            int ch = source.peek();
+            if (Alphabet.isEOF(ch) || ch == Alphabet.MORE || Alphabet.isNewline(ch)) return;
+            if (!line && (Alphabet.isWhitespace(ch) || Punctuation.contains(ch))) return;
+            source.read();
+        }
+    }
+
+    // One byte at a time, a source that decodes its input throws at the first byte that does not
+    private void skipUndecodable() {
+        while (true) {
+            try {
+                source.peek();
+                return;
+            } catch (LexicalException e) {
+                source.seek(source.position() + 1);
+            }
+        }
     }
 
     private class LexingContextImpl implements LexingContext {
         @Override
         public int read() {
-            try {
-                return reader.read();
-            } catch (IOException e) {
-                throw new RuntimeException("I/O error while reading", e);
-            }
+            reading = source.position();
+            return source.read();
         }
 
         @Override
         public void unread(int ch) {
-            if (Alphabet.isEOF(ch)) return;
-
-            try {
-                reader.unread(ch);
-            } catch (IOException e) {
-                throw new RuntimeException("I/O error while unreading", e);
-            }
+            source.unread(ch);
         }
 
         @Override
         public int peek() {
-            int ch = read();
-            if (!Alphabet.isEOF(ch)) unread(ch);
-            return ch;
+            return source.peek();
         }
 
         @Override
         public void append(int ch) {
-            buffer.appendCodePoint(ch);
+            lexeme.append(ch, reading, source.position());
         }
 
         @Override
         public int first() {
-            if (buffer.isEmpty()) return -1;
-            return buffer.codePointAt(0);
+            return lexeme.first();
         }
 
         @Override
         public int last() {
-            if (buffer.isEmpty()) return -1;
-            int n = buffer.length();
-            return buffer.codePointBefore(n);
+            return lexeme.last();
         }
 
         @Override
         public void clear() {
-            buffer.setLength(0);
+            lexeme.clear();
         }
 
         @Override
         public String lexeme() {
-            return buffer.toString();
+            return lexeme.toString();
+        }
+
+        @Override
+        public CharSequence text() {
+            return lexeme;
         }
 
         @Override
         public void emit(Type type) {
-            emitted = new Token(type, lexeme());
-            clear();
+            emitted = type;
+            end = source.position();
+
+            // A trailing line comment leaves the start behind, the end of input has no text
+            if (type == Type.EOF) start = end;
+        }
+
+        @Override
+        public void newline(int ch) {
+            lines.newline(ch, source.position());
         }
 
         @Override
         public void error(String message) {
-            System.out.printf("Caracteres no buffer: %s%n", buffer);
-            throw new LexicalException("Lexing error: " + message);
+            if (recorder != null) recorder.error();
+            if (session != null) session.errors++;
+
+            if (diagnostics != null) {
+                failure = message;
+                return;
+            }
+
+            if (session != null) endSession();
+
+            System.out.printf("Caracteres no buffer: %s%n", lexeme);
+            throw new LexicalException("Lexing error: " + message, start);
         }
     }
 }
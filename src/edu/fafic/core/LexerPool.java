@@ -0,0 +1,63 @@
+package edu.fafic.core;
+
+import edu.fafic.metrics.LexerMetrics;
+import edu.fafic.source.ReaderSource;
+
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Lexers kept between inputs with their buffers already grown, for jobs that lex many small texts.
+// Up to capacity idle lexers are kept, a lexer released into a full pool is left to the garbage collector.
+public final class LexerPool {
+
+    private final BlockingQueue<Lexer> idle;
+    private final Engine engine;
+    private final LexerMetrics metrics; // null when nothing is measured
+
+    public LexerPool(int capacity) {
+        this(capacity, Engine.TABLE);
+    }
+
+    public LexerPool(int capacity, Engine engine) {
+        this(capacity, engine, null);
+    }
+
+    public LexerPool(int capacity, Engine engine, LexerMetrics metrics) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.engine = engine;
+        this.metrics = metrics;
+    }
+
+    public Lexer acquire(Reader in) {
+        Lexer lexer = idle.poll();
+        if (lexer == null) return create(new ReaderSource(in));
+
+        lexer.reset(in);
+        return lexer;
+    }
+
+    public Lexer acquire(CharSequence text) {
+        Lexer lexer = idle.poll();
+        if (lexer == null) lexer = create(new ReaderSource(Reader.nullReader()));
+
+        lexer.reset(text);
+        return lexer;
+    }
+
+    // The lexer must not be used after it is released, nor the token streams and spans it made, which read their
+    // text from its source
+    public void release(Lexer lexer) {
+        idle.offer(lexer);
+    }
+
+    public int idle() {
+        return idle.size();
+    }
+
+    private Lexer create(ReaderSource source) {
+        return new Lexer(source, engine, null, null, metrics);
+    }
+}
@@ -20,7 +20,12 @@ public interface LexingContext {
 
     String lexeme();
 
+    CharSequence text();
+
     void emit(Type type);
 
+    // A line break was just read
+    void newline(int ch);
+
     void error(String message);
 }
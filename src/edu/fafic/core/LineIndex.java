@@ -0,0 +1,141 @@
+package edu.fafic.core;
+
+import edu.fafic.automata.TableAutomaton;
+import edu.fafic.source.Source;
+import edu.fafic.token.Type;
+
+import java.util.Arrays;
+
+// Where lexing can start again at each line of a source: the offset of the line and whether it begins inside a
+// block comment, the only lexer state that spans lines. A line that begins inside a character literal restarts at
+// the end of the literal instead. Offsets are in the unit of the source, bytes for a MappedSource.
+public final class LineIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] offsets;
+    private long[] comments;
+    private int lines;
+
+    private LineIndex() {
+        this.offsets = new int[INITIAL_CAPACITY];
+        this.comments = new long[INITIAL_CAPACITY >>> 6];
+        this.lines = 0;
+    }
+
+    // Scans the whole source once, its position is left where it was
+    public static LineIndex of(Source source) {
+        LineIndex index = new LineIndex();
+        TableAutomaton table = new TableAutomaton();
+        int position = source.position();
+
+        index.add(0, false);
+        source.seek(0);
+
+        int end = 0;
+        while (true) {
+            Type type = table.scan(source);
+            int start = table.start();
+            index.skipped(source, end, start);
+
+            if (type == Type.EOF) break;
+
+            if (type == null) {
+                // Continue after the text that does not lex, an unterminated block comment runs to the end
+                int reach = table.reach();
+                if (reach - start > 1 && source.charAt(start) == '/' && source.charAt(start + 1) == '*') {
+                    index.skipped(source, start, reach);
+                } else {
+                    index.within(source, start, reach);
+                }
+                source.seek(reach);
+            } else if (type == Type.LITERAL_CHAR) {
+                index.within(source, start, source.position());
+            }
+
+            end = source.position();
+        }
+
+        source.seek(position);
+        return index;
+    }
+
+    public int lines() {
+        return lines;
+    }
+
+    public int offset(int line) {
+        check(line);
+        return offsets[line];
+    }
+
+    public boolean inBlockComment(int line) {
+        check(line);
+        return (comments[line >>> 6] & (1L << line)) != 0;
+    }
+
+    // Whitespace and comments between two tokens
+    private void skipped(Source source, int from, int to) {
+        boolean lineComment = false;
+        boolean blockComment = false;
+
+        for (int i = from; i < to; i++) {
+            int ch = source.charAt(i);
+
+            if (blockComment) {
+                if (ch == '*' && i + 1 < to && source.charAt(i + 1) == '/') {
+                    blockComment = false;
+                    i++;
+                    continue;
+                }
+            } else if (lineComment) {
+                if (ch == '\n' || ch == '\r') lineComment = false;
+            } else if (ch == '/' && i + 1 < to) {
+                int next = source.charAt(i + 1);
+                if (next == '/' || next == '*') {
+                    lineComment = next == '/';
+                    blockComment = next == '*';
+                    i++;
+                    continue;
+                }
+            }
+
+            if (isLineBreak(source, i, ch)) add(i + 1, blockComment);
+        }
+    }
+
+    // A token that contains line breaks, the lines it starts restart after it
+    private void within(Source source, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (isLineBreak(source, i, source.charAt(i))) add(to, false);
+        }
+    }
+
+    private static boolean isLineBreak(Source source, int index, int ch) {
+        if (ch == '\n') return true;
+        if (ch != '\r') return false;
+
+        int position = source.position();
+        source.seek(index + 1);
+        int next = source.read();
+        source.seek(position);
+        return next != '\n';
+    }
+
+    private void add(int offset, boolean blockComment) {
+        if (lines == offsets.length) {
+            offsets = Arrays.copyOf(offsets, lines * 2);
+            comments = Arrays.copyOf(comments, lines * 2 >>> 6);
+        }
+
+        offsets[lines] = offset;
+        if (blockComment) comments[lines >>> 6] |= 1L << lines;
+        lines++;
+    }
+
+    private void check(int line) {
+        if (line < 0 || line >= lines) {
+            throw new IndexOutOfBoundsException("Line %d out of bounds for %d lines".formatted(line, lines));
+        }
+    }
+}
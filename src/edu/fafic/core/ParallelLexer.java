@@ -0,0 +1,217 @@
+package edu.fafic.core;
+
+import edu.fafic.automata.TableAutomaton;
+import edu.fafic.source.MappedSource;
+import edu.fafic.token.TokenSpan;
+import edu.fafic.token.TokenStream;
+import edu.fafic.token.Type;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Lexes one large input in chunks on a fork/join pool, with the same tokens as a sequential Lexer.
+// Every chunk but the first is lexed speculatively, as if a token started at its first line. The chunks
+// are then stitched in order: a sequential lexer continues from the last trusted token until it emits a
+// token at the same start as the speculative chunk, from where both are in the same state.
+public final class ParallelLexer {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+
+    public ParallelLexer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelLexer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public TokenStream tokenize(Path path) throws IOException {
+        return tokenize(MappedSource.open(path), path.toString());
+    }
+
+    public TokenStream tokenize(MappedSource source) {
+        return tokenize(source, null);
+    }
+
+    // One session event covers the whole input, the lexers that resume between chunks report none
+    private TokenStream tokenize(MappedSource source, String path) {
+        if (!Lexer.SESSIONS.isEnabled()) return lex(source);
+
+        LexSessionEvent session = new LexSessionEvent();
+        session.begin();
+
+        TokenStream tokens = null;
+        try {
+            tokens = lex(source);
+            return tokens;
+        } finally {
+            // Without tokens the input had an error that stopped the lexer
+            session.end();
+            if (session.shouldCommit()) {
+                session.path = path;
+                session.units = source.length();
+                session.tokens = tokens != null ? tokens.size() : 0;
+                session.errors = tokens != null ? 0 : 1;
+                session.commit();
+            }
+        }
+    }
+
+    private TokenStream lex(MappedSource source) {
+        int[] bounds = split(source, chunkCount(source.length()));
+        List<ChunkTask> tasks = new ArrayList<>();
+
+        for (int i = 0; i + 1 < bounds.length; i++) {
+            tasks.add(new ChunkTask(source.duplicate(), bounds[i], bounds[i + 1], i + 2 == bounds.length));
+        }
+
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+
+        return stitch(source, tasks);
+    }
+
+    private int chunkCount(int length) {
+        int byThreads = pool.getParallelism() * CHUNKS_PER_THREAD;
+        return Math.max(1, Math.min(byThreads, length / MIN_CHUNK_SIZE));
+    }
+
+    // Chunk bounds are moved to the start of the next line, which is always a character boundary
+    private static int[] split(MappedSource source, int chunks) {
+        int length = source.length();
+        int[] bounds = new int[chunks + 1];
+        int n = 1;
+
+        for (int i = 1; i < chunks; i++) {
+            int at = Math.max((int) ((long) length * i / chunks), bounds[n - 1] + 1);
+
+            while (at < length && source.charAt(at - 1) != '\n') at++;
+            if (at < length) bounds[n++] = at;
+        }
+
+        bounds[n++] = length;
+        return Arrays.copyOf(bounds, n);
+    }
+
+    private static TokenStream stitch(MappedSource source, List<ChunkTask> chunks) {
+        TokenStream out = new TokenStream(source);
+        int chunk = 0;
+        int from = 0;
+
+        while (true) {
+            ChunkTask trusted = chunks.get(chunk);
+            TokenStream tokens = trusted.tokens;
+
+            for (int i = from; i < tokens.size(); i++) {
+                out.add(tokens.type(i), tokens.offset(i), tokens.length(i));
+            }
+            if (out.size() > 0 && out.type(out.size() - 1) == Type.EOF) return out;
+
+            // Continue sequentially from the last trusted token, or from the failure it stopped at
+            int resume = trusted.failure >= 0 ? trusted.failure
+                    : out.size() > 0 ? out.offset(out.size() - 1) + out.length(out.size() - 1)
+                    : trusted.start;
+
+            MappedSource cursor = source.duplicate();
+            cursor.seek(resume);
+            Lexer lexer = new Lexer(cursor, Engine.TABLE).withoutSession();
+
+            while (true) {
+                TokenSpan span = lexer.nextSpan();
+                int next = chunkOf(chunks, span.offset());
+                int index = chunks.get(next).indexOf(span.offset());
+
+                if (next > chunk && index >= 0) {
+                    chunk = next;
+                    from = index;
+                    break;
+                }
+
+                out.add(span.type(), span.offset(), span.length());
+                if (span.isEOF()) return out;
+            }
+        }
+    }
+
+    private static int chunkOf(List<ChunkTask> chunks, int offset) {
+        int low = 0;
+        int high = chunks.size() - 1;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunks.get(mid).start <= offset) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    @SuppressWarnings("serial") // never serialized, it holds the mapped source
+    private static final class ChunkTask extends RecursiveTask<Void> {
+
+        private final MappedSource source;
+        private final int start;
+        private final int limit;
+        private final boolean last;
+
+        private TokenStream tokens;
+        private int failure = -1;
+
+        private ChunkTask(MappedSource source, int start, int limit, boolean last) {
+            this.source = source;
+            this.start = start;
+            this.limit = limit;
+            this.last = last;
+        }
+
+        // Uses the table directly, an invalid speculation just ends the chunk without reporting anything
+        @Override
+        protected Void compute() {
+            TableAutomaton table = new TableAutomaton();
+            tokens = new TokenStream(source, Math.max(16, (limit - start) / 4));
+            source.seek(start);
+
+            while (true) {
+                Type type = table.scan(source);
+
+                if (type == null) {
+                    failure = source.position();
+                    return null;
+                }
+
+                int offset = table.start();
+                if (offset >= limit && !last) return null;
+
+                tokens.add(type, offset, source.position() - offset);
+                if (type == Type.EOF) return null;
+            }
+        }
+
+        private int indexOf(int offset) {
+            int low = 0;
+            int high = tokens.size() - 1;
+
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int at = tokens.offset(mid);
+
+                if (at < offset) low = mid + 1;
+                else if (at > offset) high = mid - 1;
+                else return mid;
+            }
+            return -1;
+        }
+    }
+}
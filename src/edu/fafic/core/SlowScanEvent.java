@@ -0,0 +1,40 @@
+package edu.fafic.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// A single token that took the lexer longer than the threshold, like a huge string literal, or one that comes
+// after a huge block comment, which is counted in skippedUnits. Sizes are in source units, bytes for a mapped file
+// and chars otherwise, so they are not marked as data amounts. Every token is timed while the event is enabled,
+// so it is off unless a recording asks for it.
+@Name("edu.fafic.SlowScan")
+@Label("Slow Token Scan")
+@Category("Lexer")
+@Description("A token that took longer than the threshold to scan, including the comments and whitespace before it")
+@StackTrace(false)
+@Threshold("1 ms")
+@Enabled(false)
+final class SlowScanEvent extends jdk.jfr.Event {
+
+    @Label("Path")
+    String path;
+
+    @Label("Token Type")
+    String type;
+
+    @Label("Offset")
+    int offset;
+
+    @Label("Token Units")
+    @Description("Length of the token, in bytes for a file and in chars otherwise")
+    int units;
+
+    @Label("Skipped Units")
+    @Description("Comments and whitespace read before the token, in bytes for a file and in chars otherwise")
+    int skippedUnits;
+}
@@ -0,0 +1,274 @@
+package edu.fafic.core;
+
+import edu.fafic.automata.TableAutomaton;
+import edu.fafic.exception.LexicalException;
+import edu.fafic.source.ChunkedSource;
+import edu.fafic.source.ReaderSource;
+import edu.fafic.source.Source;
+import edu.fafic.token.Token;
+import edu.fafic.token.TokenSpan;
+import edu.fafic.token.Type;
+
+import java.io.StringReader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+// Push-based lexer: subscribes to chunks of input and publishes their tokens to a single subscriber.
+// A token cut by the end of a chunk suspends the automaton until the next chunk arrives. A chunk is only
+// requested when the subscriber wants a token and the input that arrived is used up, so at most one
+// chunk and the token in progress are ever buffered. Whitespace and comments are dropped as they are read,
+// however long, only the offset where an open block comment began is kept to report it if it never ends.
+public final class StreamingLexer<T extends Buffer> implements Flow.Processor<T, Token> {
+
+    private final BiConsumer<ChunkedSource, T> append;
+    private final ChunkedSource source;
+    private final TableAutomaton table;
+    private final Queue<T> chunks;
+    private final AtomicLong requested;
+    private final AtomicInteger wip;
+    private final AtomicReference<Flow.Subscriber<? super Token>> downstream;
+
+    private volatile Flow.Subscription upstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private volatile Throwable demandError;
+    private volatile boolean cancelled;
+
+    // Only touched while draining
+    private boolean awaitingChunk;
+    private boolean suspended;
+    private boolean finished;
+    private int commentStart; // where the block comment the scan is suspended in began, -1 when none
+    private int skippedTo;    // where the start of a scan suspended in a block comment was last moved to, -1 when none
+
+    private StreamingLexer(BiConsumer<ChunkedSource, T> append) {
+        this.append = append;
+        this.source = new ChunkedSource();
+        this.table = new TableAutomaton();
+        this.chunks = new ConcurrentLinkedQueue<>();
+        this.requested = new AtomicLong();
+        this.wip = new AtomicInteger();
+        this.downstream = new AtomicReference<>();
+        this.upstreamDone = false;
+        this.cancelled = false;
+        this.awaitingChunk = false;
+        this.suspended = false;
+        this.finished = false;
+        this.commentStart = -1;
+        this.skippedTo = -1;
+    }
+
+    // UTF-8 encoded input
+    public static StreamingLexer<ByteBuffer> ofBytes() {
+        return new StreamingLexer<>(ChunkedSource::append);
+    }
+
+    public static StreamingLexer<CharBuffer> ofChars() {
+        return new StreamingLexer<>(ChunkedSource::append);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Token> subscriber) {
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Tokens can only be published to one subscriber"));
+            return;
+        }
+
+        subscriber.onSubscribe(new TokenSubscription());
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+
+        upstream = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(T chunk) {
+        chunks.offer(chunk);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        upstreamError = error;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    // Runs on whichever thread signals, one at a time, until no signal is left unhandled
+    private void drain() {
+        if (wip.getAndIncrement() != 0) return;
+
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super Token> subscriber = downstream.get();
+            Flow.Subscription subscription = upstream;
+
+            if (subscriber != null && subscription != null && !finished) {
+                try {
+                    publish(subscriber, subscription);
+                } catch (LexicalException e) {
+                    fail(subscriber, e);
+                }
+            }
+
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void publish(Flow.Subscriber<? super Token> subscriber, Flow.Subscription subscription) {
+        while (true) {
+            if (cancelled) {
+                // The downstream may have cancelled before there was an upstream to cancel, cancelling twice is a no-op
+                subscription.cancel();
+                finished = true;
+                chunks.clear();
+                return;
+            }
+            if (upstreamError != null || demandError != null) {
+                fail(subscriber, upstreamError != null ? upstreamError : demandError);
+                return;
+            }
+            if (requested.get() == 0) return;
+
+            Type type = suspended ? table.resume(source) : table.scan(source);
+            suspended = type == null && table.suspended();
+
+            if (suspended) {
+                if (table.suspendedBetweenTokens()) skip();
+                T chunk = chunks.poll();
+
+                if (chunk != null) {
+                    awaitingChunk = false;
+                    append.accept(source, chunk);
+                } else if (upstreamDone) {
+                    source.close();
+                } else {
+                    if (!awaitingChunk) {
+                        awaitingChunk = true;
+                        subscription.request(1);
+                    }
+                    return;
+                }
+                continue;
+            }
+
+            if (type == null) {
+                fail(subscriber, failure());
+                return;
+            }
+
+            int start = table.start();
+            int end = source.position();
+            Token token = new Token(type, TokenSpan.lexeme(type, start, end - start, source), start);
+            source.release(end);
+
+            if (requested.get() != Long.MAX_VALUE) requested.decrementAndGet();
+            subscriber.onNext(token);
+
+            if (type == Type.EOF) {
+                finished = true;
+                subscriber.onComplete();
+                return;
+            }
+        }
+    }
+
+    // Characters the lexer has room for in memory
+    int buffered() {
+        return source.capacity();
+    }
+
+    // Drops what the suspended scan read. A block comment that starts anywhere but where the last skip left the
+    // scan is a new one, the one before ended.
+    private void skip() {
+        int position = source.position();
+        boolean comment = table.suspendedInBlockComment();
+
+        if (!comment) {
+            commentStart = -1;
+        } else if (table.start() != skippedTo) {
+            commentStart = table.start();
+        }
+
+        table.skipSuspended(position);
+        source.release(position);
+        skippedTo = comment ? position : -1;
+    }
+
+    // The reference automaton reports the error, the same way Lexer does. A block comment that never ends was
+    // dropped as it was read, its error is the one for a comment opened at the start of the input.
+    private LexicalException failure() {
+        boolean comment = commentStart >= 0 && table.start() == skippedTo;
+        Source failed = comment ? new ReaderSource(new StringReader("/*")) : source;
+        int offset = comment ? commentStart : 0;
+
+        Diagnostics diagnostics = new Diagnostics(1);
+        new Lexer(failed, Engine.STATES, diagnostics).withoutSession().nextSpan();
+
+        if (diagnostics.isEmpty()) return new LexicalException("Lexing error at %d".formatted(source.position()));
+        Diagnostic error = diagnostics.list().get(0);
+        return new LexicalException("Lexing error: " + error.message(), error.offset() + offset);
+    }
+
+    private void fail(Flow.Subscriber<? super Token> subscriber, Throwable error) {
+        finished = true;
+        chunks.clear();
+        if (upstreamError == null) upstream.cancel();
+        subscriber.onError(error);
+    }
+
+    private final class TokenSubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                demandError = new IllegalArgumentException("Demand must be positive, was " + n);
+                drain();
+                return;
+            }
+
+            requested.getAndUpdate(current -> {
+                long sum = current + n;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Flow.Subscription subscription = upstream;
+            if (subscription != null) subscription.cancel();
+            drain();
+        }
+    }
+}
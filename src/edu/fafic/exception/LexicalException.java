@@ -2,7 +2,19 @@ package edu.fafic.exception;
 
 public final class LexicalException extends RuntimeException {
 
+    private final int offset;
+
     public LexicalException(String message) {
+        this(message, -1);
+    }
+
+    public LexicalException(String message, int offset) {
         super(message);
+        this.offset = offset;
+    }
+
+    // Where the invalid text starts in the source, -1 when unknown
+    public int offset() {
+        return offset;
     }
 }
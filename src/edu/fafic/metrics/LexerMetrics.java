@@ -0,0 +1,228 @@
+package edu.fafic.metrics;
+
+import edu.fafic.automata.States;
+import edu.fafic.token.Type;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters shared by any number of lexers. Each lexer counts into its own Recorder, without synchronization, and
+// adds its counts here every FLUSH_TOKENS tokens and at the end of its input, so a snapshot can lag behind the
+// lexers that are still running by that much. Visits and time per state are only measured by lexers built with
+// Engine.STATES, the table engines leave them at zero. They are sampled on one scan out of SAMPLE_EVERY on
+// average, and the visits and time of that scan are counted SAMPLE_EVERY times.
+// The gap between samples is random, so input that repeats with some period is not sampled at the same place.
+public final class LexerMetrics implements LexerMetricsMXBean {
+
+    private static final int FLUSH_TOKENS = 4096;
+    private static final int SAMPLE_EVERY = 16;
+
+    private static final Type[] TYPES = Type.values();
+    private static final States[] STATES = States.values();
+
+    private final LongAdder units;
+    private final LongAdder errors;
+    private final LongAdder[] tokens;
+    private final LongAdder[] visits;
+    private final LongAdder[] nanos;
+
+    public LexerMetrics() {
+        this.units = new LongAdder();
+        this.errors = new LongAdder();
+        this.tokens = adders(TYPES.length);
+        this.visits = adders(STATES.length);
+        this.nanos = adders(STATES.length);
+    }
+
+    public Recorder recorder() {
+        return new Recorder();
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<Type, Long> byType = new EnumMap<>(Type.class);
+        long total = 0;
+        for (Type type : TYPES) {
+            long n = tokens[type.ordinal()].sum();
+            if (n != 0) byType.put(type, n);
+            total += n;
+        }
+
+        Map<States, Long> visitsByState = new EnumMap<>(States.class);
+        Map<States, Long> nanosByState = new EnumMap<>(States.class);
+        for (States state : STATES) {
+            long n = visits[state.ordinal()].sum();
+            if (n == 0) continue;
+            visitsByState.put(state, n);
+            nanosByState.put(state, nanos[state.ordinal()].sum());
+        }
+
+        return new MetricsSnapshot(units.sum(), total, errors.sum(),
+                Collections.unmodifiableMap(byType),
+                Collections.unmodifiableMap(visitsByState),
+                Collections.unmodifiableMap(nanosByState));
+    }
+
+    // Registers the counters with the platform MBean server as edu.fafic:type=LexerMetrics,name=<name>
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = ObjectName.getInstance("edu.fafic:type=LexerMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("Lexer metrics named %s are already registered".formatted(name), e);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register lexer metrics " + name, e);
+        }
+    }
+
+    public void unregister(ObjectName name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister lexer metrics " + name, e);
+        }
+    }
+
+    @Override
+    public long getUnits() {
+        return units.sum();
+    }
+
+    @Override
+    public long getTokens() {
+        long total = 0;
+        for (LongAdder adder : tokens) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public Map<String, Long> getTokensByType() {
+        return named(TYPES, tokens);
+    }
+
+    @Override
+    public Map<String, Long> getVisitsByState() {
+        return named(STATES, visits);
+    }
+
+    @Override
+    public Map<String, Long> getNanosByState() {
+        return named(STATES, nanos);
+    }
+
+    // Counts still pending in a recorder are not cleared
+    @Override
+    public void reset() {
+        units.reset();
+        errors.reset();
+        for (LongAdder[] adders : List.of(tokens, visits, nanos)) {
+            for (LongAdder adder : adders) {
+                adder.reset();
+            }
+        }
+    }
+
+    private static Map<String, Long> named(Enum<?>[] keys, LongAdder[] adders) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (Enum<?> key : keys) {
+            long n = adders[key.ordinal()].sum();
+            if (n != 0) map.put(key.name(), n);
+        }
+        return map;
+    }
+
+    // Moves the counts into the adders, leaving them at 0
+    private static void add(long[] counts, LongAdder[] adders) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                adders[i].add(counts[i]);
+                counts[i] = 0;
+            }
+        }
+    }
+
+    private static LongAdder[] adders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    // The counts of one lexer, only ever used from the thread that runs it
+    public final class Recorder {
+
+        private final long[] tokens;
+        private final long[] visits;
+        private final long[] nanos;
+        private long units;
+        private long errors;
+        private int pending;
+        private int untilSample;
+
+        private Recorder() {
+            this.tokens = new long[TYPES.length];
+            this.visits = new long[STATES.length];
+            this.nanos = new long[STATES.length];
+            this.units = 0;
+            this.errors = 0;
+            this.pending = 0;
+            this.untilSample = SAMPLE_EVERY;
+        }
+
+        // Whether the next scan should report its states
+        public boolean sample() {
+            if (--untilSample > 0) return false;
+            untilSample = ThreadLocalRandom.current().nextInt(1, 2 * SAMPLE_EVERY);
+            return true;
+        }
+
+        // A token and the input read to find it, from the end of the previous one
+        public void token(Type type, int units) {
+            tokens[type.ordinal()]++;
+            this.units += units;
+
+            if (++pending == FLUSH_TOKENS || type == Type.EOF) flush();
+        }
+
+        // Characters accepted in a state of the reference automaton during a sampled scan, and the time it took
+        public void state(States state, int visits, long nanos) {
+            this.visits[state.ordinal()] += (long) visits * SAMPLE_EVERY;
+            this.nanos[state.ordinal()] += nanos * SAMPLE_EVERY;
+        }
+
+        public void error() {
+            errors++;
+            flush();
+        }
+
+        public void flush() {
+            add(tokens, LexerMetrics.this.tokens);
+            add(visits, LexerMetrics.this.visits);
+            add(nanos, LexerMetrics.this.nanos);
+            if (units != 0) LexerMetrics.this.units.add(units);
+            if (errors != 0) LexerMetrics.this.errors.add(errors);
+            units = 0;
+            errors = 0;
+            pending = 0;
+        }
+    }
+}
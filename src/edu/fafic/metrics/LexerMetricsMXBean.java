@@ -0,0 +1,21 @@
+package edu.fafic.metrics;
+
+import java.util.Map;
+
+public interface LexerMetricsMXBean {
+
+    long getUnits();
+
+    long getTokens();
+
+    long getErrors();
+
+    Map<String, Long> getTokensByType();
+
+    // Only lexers built with Engine.STATES count visits and time per state
+    Map<String, Long> getVisitsByState();
+
+    Map<String, Long> getNanosByState();
+
+    void reset();
+}
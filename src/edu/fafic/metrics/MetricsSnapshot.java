@@ -0,0 +1,22 @@
+package edu.fafic.metrics;
+
+import edu.fafic.automata.States;
+import edu.fafic.token.Type;
+
+import java.util.Map;
+
+// Units are those of the source offsets, bytes for a mapped file and chars otherwise. Visits and time per state
+// are only counted by lexers built with Engine.STATES
+public record MetricsSnapshot(long units, long tokens, long errors,
+                              Map<Type, Long> tokensByType,
+                              Map<States, Long> visitsByState,
+                              Map<States, Long> nanosByState) {
+
+    public long tokens(Type type) {
+        return tokensByType.getOrDefault(type, 0L);
+    }
+
+    public long nanos(States state) {
+        return nanosByState.getOrDefault(state, 0L);
+    }
+}
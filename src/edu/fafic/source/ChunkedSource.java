@@ -0,0 +1,167 @@
+package edu.fafic.source;
+
+import edu.fafic.exception.LexicalException;
+import edu.fafic.vocabulary.Alphabet;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Input that arrives in chunks. At the end of what has arrived read() answers Alphabet.MORE, until close().
+// Positions count from the start of the whole input, text before the released position is dropped on the next append.
+public final class ChunkedSource implements Source {
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    private final CharsetDecoder decoder;
+
+    private char[] window;
+    private int base;
+    private int position;
+    private int limit;
+    private int released;
+    private long bytes;
+    private ByteBuffer leftover;
+    private boolean closed;
+
+    public ChunkedSource() {
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.window = new char[INITIAL_CAPACITY];
+        this.base = 0;
+        this.position = 0;
+        this.limit = 0;
+        this.released = 0;
+        this.bytes = 0;
+        this.leftover = null;
+        this.closed = false;
+    }
+
+    public void append(CharBuffer chars) {
+        int n = chars.remaining();
+        reserve(n);
+        chars.get(window, limit - base, n);
+        limit += n;
+    }
+
+    // UTF-8 bytes, a character split between two chunks is completed by the next one
+    public void append(ByteBuffer chunk) {
+        ByteBuffer in = chunk;
+        if (leftover != null) {
+            in = ByteBuffer.allocate(leftover.remaining() + chunk.remaining()).put(leftover).put(chunk).flip();
+            leftover = null;
+        }
+
+        reserve(in.remaining());
+        decode(in, false);
+        if (in.hasRemaining()) leftover = ByteBuffer.allocate(in.remaining()).put(in).flip();
+    }
+
+    // No more input will arrive, reads past the end answer Alphabet.EOF from now on
+    public void close() {
+        if (closed) return;
+
+        ByteBuffer in = leftover != null ? leftover : ByteBuffer.allocate(0);
+        leftover = null;
+        reserve(in.remaining());
+        decode(in, true);
+        closed = true;
+    }
+
+    // The text before the offset will not be read again
+    public void release(int offset) {
+        released = Math.max(released, Math.min(offset, position));
+    }
+
+    // Characters the window has room for, it only grows to hold the text that is not released yet
+    public int capacity() {
+        return window.length;
+    }
+
+    @Override
+    public int read() {
+        if (position < limit) return window[position++ - base];
+        return closed ? Alphabet.EOF : Alphabet.MORE;
+    }
+
+    @Override
+    public void unread(int ch) {
+        if (Alphabet.isEOF(ch) || ch == Alphabet.MORE) return;
+        if (position == base) throw new IllegalStateException("Nothing to unread at the start of the retained input");
+        position--;
+    }
+
+    @Override
+    public int peek() {
+        if (position < limit) return window[position - base];
+        return closed ? Alphabet.EOF : Alphabet.MORE;
+    }
+
+    @Override
+    public int position() {
+        return position;
+    }
+
+    @Override
+    public void seek(int position) {
+        if (position < base || position > limit) {
+            throw new IndexOutOfBoundsException("Position %d is outside of the retained input".formatted(position));
+        }
+        this.position = position;
+    }
+
+    @Override
+    public int charAt(int index) {
+        return window[index - base];
+    }
+
+    @Override
+    public String text(int start, int end) {
+        return new String(window, start - base, end - start);
+    }
+
+    @Override
+    public void skip(Run run) {
+        int at = position - base;
+        int end = limit - base;
+        while (at < end && !run.ends(window[at])) {
+            at++;
+        }
+        position = at + base;
+    }
+
+    private void decode(ByteBuffer in, boolean last) {
+        CharBuffer out = CharBuffer.wrap(window, limit - base, window.length - (limit - base));
+        int before = in.position();
+
+        CoderResult result = decoder.decode(in, out, last);
+        if (!result.isError() && last) result = decoder.flush(out);
+
+        bytes += in.position() - before;
+        limit = out.position() + base;
+
+        if (result.isError()) {
+            throw new LexicalException("Malformed UTF-8 input at byte %d".formatted(bytes));
+        }
+    }
+
+    // Drops the released text and makes room for n more characters, UTF-8 never decodes to more characters than bytes
+    private void reserve(int n) {
+        if (closed) throw new IllegalStateException("The input is already closed");
+
+        if (released > base) {
+            System.arraycopy(window, released - base, window, 0, limit - released);
+            base = released;
+        }
+
+        int needed = limit - base + n;
+        if (needed > window.length) {
+            window = Arrays.copyOf(window, Math.max(window.length * 2, needed));
+        }
+    }
+}
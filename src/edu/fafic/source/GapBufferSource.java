@@ -0,0 +1,123 @@
+package edu.fafic.source;
+
+import edu.fafic.vocabulary.Alphabet;
+
+import java.util.Arrays;
+
+// Editable text kept in a gap buffer, so an edit only moves the characters between the gap and the edit
+public final class GapBufferSource implements Source {
+
+    private static final int MIN_GAP = 1024;
+
+    private char[] buffer;
+    private int gapStart;
+    private int gapEnd;
+    private int position;
+
+    public GapBufferSource(CharSequence text) {
+        this.buffer = new char[text.length() + MIN_GAP];
+        for (int i = 0; i < text.length(); i++) {
+            buffer[i] = text.charAt(i);
+        }
+
+        this.gapStart = text.length();
+        this.gapEnd = buffer.length;
+        this.position = 0;
+    }
+
+    public int length() {
+        return buffer.length - (gapEnd - gapStart);
+    }
+
+    public void replace(int offset, int removed, CharSequence inserted) {
+        if (offset < 0 || removed < 0 || offset + removed > length()) {
+            throw new IndexOutOfBoundsException("Edit %d+%d is outside of the text".formatted(offset, removed));
+        }
+
+        moveGap(offset);
+        gapEnd += removed;
+
+        int n = inserted.length();
+        if (gapEnd - gapStart < n) grow(n);
+
+        for (int i = 0; i < n; i++) {
+            buffer[gapStart++] = inserted.charAt(i);
+        }
+        position = Math.min(position, length());
+    }
+
+    @Override
+    public int read() {
+        if (position >= length()) return Alphabet.EOF;
+        return charAt(position++);
+    }
+
+    @Override
+    public void unread(int ch) {
+        if (Alphabet.isEOF(ch)) return;
+        if (position == 0) throw new IllegalStateException("Nothing to unread at the start of the input");
+        position--;
+    }
+
+    @Override
+    public int peek() {
+        if (position >= length()) return Alphabet.EOF;
+        return charAt(position);
+    }
+
+    @Override
+    public int position() {
+        return position;
+    }
+
+    @Override
+    public void seek(int position) {
+        if (position < 0 || position > length()) {
+            throw new IndexOutOfBoundsException("Position %d is outside of the text".formatted(position));
+        }
+        this.position = position;
+    }
+
+    @Override
+    public int charAt(int index) {
+        return buffer[index < gapStart ? index : index + gapEnd - gapStart];
+    }
+
+    @Override
+    public String text(int start, int end) {
+        char[] copy = new char[end - start];
+        for (int i = start; i < end; i++) {
+            copy[i - start] = (char) charAt(i);
+        }
+        return new String(copy);
+    }
+
+    @Override
+    public String toString() {
+        return text(0, length());
+    }
+
+    private void moveGap(int offset) {
+        if (offset < gapStart) {
+            int n = gapStart - offset;
+            System.arraycopy(buffer, offset, buffer, gapEnd - n, n);
+            gapStart -= n;
+            gapEnd -= n;
+        } else if (offset > gapStart) {
+            int n = offset - gapStart;
+            System.arraycopy(buffer, gapEnd, buffer, gapStart, n);
+            gapStart += n;
+            gapEnd += n;
+        }
+    }
+
+    private void grow(int needed) {
+        int tail = buffer.length - gapEnd;
+        int capacity = Math.max(buffer.length * 2, length() + needed + MIN_GAP);
+        char[] grown = Arrays.copyOf(buffer, capacity);
+
+        System.arraycopy(buffer, gapEnd, grown, capacity - tail, tail);
+        gapEnd = capacity - tail;
+        buffer = grown;
+    }
+}
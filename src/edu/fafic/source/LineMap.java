@@ -0,0 +1,80 @@
+package edu.fafic.source;
+
+import java.util.Arrays;
+
+// Offsets where lines start, filled in by the automata as they consume line breaks, so nothing is counted per
+// character. Lines and columns count from 0, in the unit of the source offsets, and are only known for the text
+// lexed so far.
+public final class LineMap {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] starts;
+    private int size;
+    private int firstLine;
+    private boolean afterCarriageReturn;
+
+    public LineMap() {
+        this.starts = new int[INITIAL_CAPACITY];
+        this.size = 1;
+        this.firstLine = 0;
+        this.afterCarriageReturn = false;
+    }
+
+    // Called right after a line break has been read, start is the offset of the next line
+    public void newline(int ch, int start) {
+        int last = starts[size - 1];
+
+        // Text scanned again after a failed attempt adds nothing
+        if (start <= last) return;
+
+        if (ch == '\n' && afterCarriageReturn && last == start - 1) {
+            starts[size - 1] = start;
+            afterCarriageReturn = false;
+            return;
+        }
+
+        if (size == starts.length) starts = Arrays.copyOf(starts, size * 2);
+        starts[size++] = start;
+        afterCarriageReturn = ch == '\r';
+    }
+
+    // Starts over at a known line, when lexing jumps to the middle of the input
+    public void reset(int line, int start) {
+        starts[0] = start;
+        size = 1;
+        firstLine = line;
+        afterCarriageReturn = false;
+    }
+
+    public int lines() {
+        return firstLine + size;
+    }
+
+    public int start(int line) {
+        if (line < firstLine || line >= firstLine + size) {
+            throw new IndexOutOfBoundsException("Line %d is not known, lines %d to %d are".formatted(line, firstLine, firstLine + size - 1));
+        }
+        return starts[line - firstLine];
+    }
+
+    public int line(int offset) {
+        if (offset < starts[0]) {
+            throw new IndexOutOfBoundsException("Offset %d is before the first known line".formatted(offset));
+        }
+
+        int low = 0;
+        int high = size - 1;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= offset) low = mid;
+            else high = mid - 1;
+        }
+        return firstLine + low;
+    }
+
+    public int column(int offset) {
+        return offset - start(line(offset));
+    }
+}
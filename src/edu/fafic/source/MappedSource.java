@@ -0,0 +1,170 @@
+package edu.fafic.source;
+
+import edu.fafic.exception.LexicalException;
+import edu.fafic.vocabulary.Alphabet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class MappedSource implements Source {
+
+    private final ByteBuffer bytes;
+    private final ByteBuffer words; // the same bytes, read eight at a time with the first one lowest
+    private final int limit;
+
+    private int position;
+
+    public MappedSource(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.words = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.limit = bytes.limit();
+        this.position = 0;
+    }
+
+    public static MappedSource open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to be mapped: " + path);
+            }
+
+            return new MappedSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    // An independent cursor over the same bytes, so several threads can read one mapping
+    public MappedSource duplicate() {
+        return new MappedSource(bytes.duplicate());
+    }
+
+    public int length() {
+        return limit;
+    }
+
+    @Override
+    public int read() {
+        if (position >= limit) return Alphabet.EOF;
+
+        byte b = bytes.get(position);
+        if (b >= 0) {
+            position++;
+            return b;
+        }
+
+        return decode();
+    }
+
+    @Override
+    public void unread(int ch) {
+        if (Alphabet.isEOF(ch)) return;
+        if (position == 0) throw new IllegalStateException("Nothing to unread at the start of the input");
+        position -= width(ch);
+    }
+
+    @Override
+    public int peek() {
+        int at = position;
+        int ch = read();
+        position = at;
+        return ch;
+    }
+
+    @Override
+    public int position() {
+        return position;
+    }
+
+    @Override
+    public void seek(int position) {
+        if (position < 0 || position > limit) {
+            throw new IndexOutOfBoundsException("Position %d is outside of the input read so far".formatted(position));
+        }
+        this.position = position;
+    }
+
+    // The raw byte, which can only equal an ASCII character when it encodes that character
+    @Override
+    public int charAt(int index) {
+        return bytes.get(index) & 0xFF;
+    }
+
+    @Override
+    public String text(int start, int end) {
+        byte[] copy = new byte[end - start];
+        bytes.get(start, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    // Tests eight bytes per step, a word with no byte that ends the run is skipped as a whole
+    @Override
+    public void skip(Run run) {
+        int at = position;
+
+        while (at <= limit - Long.BYTES) {
+            long ends = run.ends(words.getLong(at));
+            if (ends != 0) {
+                position = at + (Long.numberOfTrailingZeros(ends) >>> 3);
+                return;
+            }
+            at += Long.BYTES;
+        }
+
+        while (at < limit) {
+            byte b = bytes.get(at);
+            if (b < 0 || run.ends(b)) break;
+            at++;
+        }
+        position = at;
+    }
+
+    // Only reached for non-ASCII input, everything else is read straight from the mapped bytes
+    private int decode() {
+        int lead = bytes.get(position) & 0xFF;
+        int length;
+        int cp;
+
+        if ((lead & 0xE0) == 0xC0) {
+            length = 2;
+            cp = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            length = 3;
+            cp = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            length = 4;
+            cp = lead & 0x07;
+        } else {
+            throw malformed();
+        }
+
+        if (position + length > limit) throw malformed();
+
+        for (int i = 1; i < length; i++) {
+            int b = bytes.get(position + i) & 0xFF;
+            if ((b & 0xC0) != 0x80) throw malformed();
+            cp = (cp << 6) | (b & 0x3F);
+        }
+
+        if (width(cp) != length || (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE) || cp > Character.MAX_CODE_POINT) {
+            throw malformed();
+        }
+
+        position += length;
+        return cp;
+    }
+
+    private LexicalException malformed() {
+        return new LexicalException("Malformed UTF-8 input at byte %d".formatted(position), position);
+    }
+
+    private static int width(int cp) {
+        if (cp < 0x80) return 1;
+        if (cp < 0x800) return 2;
+        if (cp < 0x10000) return 3;
+        return 4;
+    }
+}
@@ -0,0 +1,128 @@
+package edu.fafic.source;
+
+import edu.fafic.vocabulary.Alphabet;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+public final class ReaderSource implements Source {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private Reader reader;
+
+    private char[] window;
+    private int position;
+    private int limit;
+    private boolean exhausted;
+
+    public ReaderSource(Reader reader) {
+        this.reader = reader;
+        this.window = new char[CHUNK_SIZE];
+        this.position = 0;
+        this.limit = 0;
+        this.exhausted = false;
+    }
+
+    // Starts over with new input, keeping the window at the largest size it has reached
+    public void reset(Reader reader) {
+        this.reader = reader;
+        this.position = 0;
+        this.limit = 0;
+        this.exhausted = false;
+    }
+
+    // The whole text is copied into the window at once, there is no reader to fill it from
+    public void reset(CharSequence text) {
+        int n = text.length();
+        if (n > window.length) window = new char[Math.max(window.length * 2, n)];
+
+        if (text instanceof String string) {
+            string.getChars(0, n, window, 0);
+        } else {
+            for (int i = 0; i < n; i++) {
+                window[i] = text.charAt(i);
+            }
+        }
+
+        this.reader = null;
+        this.position = 0;
+        this.limit = n;
+        this.exhausted = true;
+    }
+
+    @Override
+    public int read() {
+        if (position == limit && !fill()) return Alphabet.EOF;
+        return window[position++];
+    }
+
+    @Override
+    public void unread(int ch) {
+        if (Alphabet.isEOF(ch)) return;
+        if (position == 0) throw new IllegalStateException("Nothing to unread at the start of the input");
+        position--;
+    }
+
+    @Override
+    public int peek() {
+        if (position == limit && !fill()) return Alphabet.EOF;
+        return window[position];
+    }
+
+    @Override
+    public int position() {
+        return position;
+    }
+
+    @Override
+    public void seek(int position) {
+        if (position < 0 || position > limit) {
+            throw new IndexOutOfBoundsException("Position %d is outside of the input read so far".formatted(position));
+        }
+        this.position = position;
+    }
+
+    @Override
+    public int charAt(int index) {
+        return window[index];
+    }
+
+    @Override
+    public String text(int start, int end) {
+        return new String(window, start, end - start);
+    }
+
+    @Override
+    public void skip(Run run) {
+        int at = position;
+        while (at < limit && !run.ends(window[at])) {
+            at++;
+        }
+        position = at;
+    }
+
+    // Consumed characters are kept in the window, so any amount of input can be pushed back
+    private boolean fill() {
+        if (exhausted) return false;
+
+        if (limit + CHUNK_SIZE > window.length) {
+            window = Arrays.copyOf(window, Math.max(window.length * 2, limit + CHUNK_SIZE));
+        }
+
+        try {
+            int n = reader.read(window, limit, window.length - limit);
+
+            if (n < 0) {
+                exhausted = true;
+                return false;
+            }
+
+            limit += n;
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("I/O error while reading", e);
+        }
+    }
+}
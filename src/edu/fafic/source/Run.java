@@ -0,0 +1,53 @@
+package edu.fafic.source;
+
+// Runs of characters that the automaton reads without leaving its state. A source can move past one in bulk,
+// up to the character that ends it, so the automaton only sees that character.
+public enum Run {
+
+    BLANKS(false, ' ', '\t'),               // indentation, ends at anything else
+    LINE_COMMENT(true, '\n', '\r'),         // ends at a line break
+    BLOCK_COMMENT(true, '*', '\n', '\r'),   // ends at what may close the comment or a line break
+    STRING(true, '"', '\n', '\r');          // ends at the closing quote or a line break
+
+    private static final long LOW = 0x7F7F_7F7F_7F7F_7F7FL;
+    private static final long HIGH = 0x8080_8080_8080_8080L;
+
+    private final boolean delimited;
+    private final boolean[] ends;
+    private final long[] words;
+
+    Run(boolean delimited, char... chars) {
+        this.delimited = delimited;
+        this.ends = new boolean[128];
+        this.words = new long[chars.length];
+
+        for (int ch = 0; ch < 128; ch++) {
+            ends[ch] = !delimited;
+        }
+        for (int i = 0; i < chars.length; i++) {
+            ends[chars[i]] = delimited;
+            words[i] = (chars[i] & 0xFFL) * 0x0101_0101_0101_0101L;
+        }
+    }
+
+    public boolean ends(int ch) {
+        if (ch >= 0 && ch < 128) return ends[ch];
+        return !delimited;
+    }
+
+    // Eight bytes of UTF-8, the first one in the lowest bits. Sets the high bit of every byte that ends the run,
+    // which includes every byte above ASCII, so the source still decodes and checks those one at a time.
+    long ends(long word) {
+        long matches = 0;
+        for (long pattern : words) {
+            matches |= equal(word, pattern);
+        }
+        return (delimited ? matches : ~matches & HIGH) | (word & HIGH);
+    }
+
+    // High bit of each byte that is equal in both words, without carries between bytes
+    private static long equal(long word, long pattern) {
+        long x = word ^ pattern;
+        return ~(((x & LOW) + LOW) | x) & HIGH;
+    }
+}
@@ -0,0 +1,23 @@
+package edu.fafic.source;
+
+public interface Source {
+
+    int read();
+
+    void unread(int ch);
+
+    int peek();
+
+    int position();
+
+    void seek(int position);
+
+    int charAt(int index);
+
+    String text(int start, int end);
+
+    // Moves past the characters at the position that continue the run, read() then returns the one that ends it.
+    // Only a shortcut, a source is free to stop earlier or not to move at all.
+    default void skip(Run run) {
+    }
+}
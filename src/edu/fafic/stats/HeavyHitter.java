@@ -0,0 +1,5 @@
+package edu.fafic.stats;
+
+// The count is at most error above the true count of the name, and never below it
+public record HeavyHitter(String name, long count, long error) {
+}
@@ -0,0 +1,260 @@
+package edu.fafic.stats;
+
+import edu.fafic.source.Source;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Space-Saving sketch of the most frequent names, with room for a fixed number of them. When it is full a new
+// name takes the place of the least counted one and inherits its count as error, so a name that is kept is never
+// undercounted, and a name that was dropped was seen at most min() times. The entries form a min-heap by count.
+public final class HeavyHitters {
+
+    private final int capacity;
+    private final String[] names;
+    private final int[] hashes;
+    private final long[] counts;
+    private final long[] errors;
+    private final int[] heap;     // entries, the least counted first
+    private final int[] heapSlot; // where each entry is in the heap
+    private final int[] slots;    // linear probing over the names, entry + 1, 0 when empty
+
+    private int size;
+
+    public HeavyHitters(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+
+        this.capacity = capacity;
+        this.names = new String[capacity];
+        this.hashes = new int[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapSlot = new int[capacity];
+        this.slots = new int[Integer.highestOneBit(capacity) * 4];
+        this.size = 0;
+    }
+
+    // The name is only copied out of the source when it enters the sketch
+    public void add(Source source, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            int unit = source.charAt(i);
+            // Above ASCII the units of a mapped source are bytes, which would not hash like the name
+            if (unit >= 0x80) {
+                add(source.text(start, end));
+                return;
+            }
+            h = 31 * h + unit;
+        }
+        h = mix(h);
+
+        int entry = find(source, start, end, h);
+        if (entry >= 0) {
+            increment(entry, 1, 0);
+        } else {
+            insert(source.text(start, end), h, 1, 0);
+        }
+    }
+
+    public void add(String name) {
+        add(name, 1, 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // The most a name that is not in the sketch can have been seen
+    public long min() {
+        return size < capacity ? 0 : counts[heap[0]];
+    }
+
+    public List<HeavyHitter> top(int k) {
+        List<HeavyHitter> all = new ArrayList<>(size);
+        for (int entry = 0; entry < size; entry++) {
+            all.add(new HeavyHitter(names[entry], counts[entry], errors[entry]));
+        }
+
+        all.sort(Comparator.comparingLong(HeavyHitter::count).reversed().thenComparing(HeavyHitter::name));
+        return List.copyOf(all.subList(0, Math.min(k, all.size())));
+    }
+
+    // Adds the names of the other sketch. A name missing from one side may have been seen there up to that side's
+    // min(), which is added to its count and error, and the most counted names are kept.
+    public void merge(HeavyHitters other) {
+        long minHere = min();
+        long minThere = other.min();
+        Map<String, long[]> union = new HashMap<>();
+
+        for (int entry = 0; entry < size; entry++) {
+            union.put(names[entry], new long[]{counts[entry] + minThere, errors[entry] + minThere});
+        }
+        for (int entry = 0; entry < other.size; entry++) {
+            long[] mine = union.get(other.names[entry]);
+            if (mine != null) {
+                mine[0] += other.counts[entry] - minThere;
+                mine[1] += other.errors[entry] - minThere;
+            } else {
+                union.put(other.names[entry], new long[]{other.counts[entry] + minHere, other.errors[entry] + minHere});
+            }
+        }
+
+        List<Map.Entry<String, long[]>> kept = new ArrayList<>(union.entrySet());
+        kept.sort(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed());
+
+        size = 0;
+        Arrays.fill(slots, 0);
+        for (Map.Entry<String, long[]> e : kept.subList(0, Math.min(capacity, kept.size()))) {
+            insert(e.getKey(), hash(e.getKey()), e.getValue()[0], e.getValue()[1]);
+        }
+    }
+
+    private void add(String name, long count, long error) {
+        int h = hash(name);
+        int entry = find(name, h);
+
+        if (entry >= 0) {
+            increment(entry, count, error);
+        } else {
+            insert(name, h, count, error);
+        }
+    }
+
+    private void increment(int entry, long count, long error) {
+        counts[entry] += count;
+        errors[entry] += error;
+        siftDown(heapSlot[entry]);
+    }
+
+    private void insert(String name, int hash, long count, long error) {
+        int entry;
+
+        if (size < capacity) {
+            entry = size++;
+            heap[entry] = entry;
+            heapSlot[entry] = entry;
+            counts[entry] = 0;
+        } else {
+            entry = heap[0];
+            remove(entry);
+            count += counts[entry];
+            error += counts[entry];
+        }
+
+        names[entry] = name;
+        hashes[entry] = hash;
+        counts[entry] = count;
+        errors[entry] = error;
+        place(entry);
+
+        siftUp(heapSlot[entry]);
+        siftDown(heapSlot[entry]);
+    }
+
+    private int find(Source source, int start, int end, int hash) {
+        int mask = slots.length - 1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) return -1;
+            if (hashes[entry] == hash && matches(names[entry], source, start, end)) return entry;
+        }
+    }
+
+    private int find(String name, int hash) {
+        int mask = slots.length - 1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) return -1;
+            if (hashes[entry] == hash && names[entry].equals(name)) return entry;
+        }
+    }
+
+    private static boolean matches(String name, Source source, int start, int end) {
+        if (name.length() != end - start) return false;
+
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != source.charAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    private void place(int entry) {
+        int mask = slots.length - 1;
+        int slot = hashes[entry] & mask;
+
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry + 1;
+    }
+
+    // Moves back the entries after the hole that would no longer be found past it
+    private void remove(int entry) {
+        int mask = slots.length - 1;
+        int hole = hashes[entry] & mask;
+        while (slots[hole] != entry + 1) {
+            hole = (hole + 1) & mask;
+        }
+
+        for (int slot = (hole + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int home = hashes[slots[slot] - 1] & mask;
+            boolean reachable = hole <= slot ? home > hole && home <= slot : home > hole || home <= slot;
+            if (!reachable) {
+                slots[hole] = slots[slot];
+                hole = slot;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private void siftUp(int at) {
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[heap[at]]) return;
+            swap(at, parent);
+            at = parent;
+        }
+    }
+
+    private void siftDown(int at) {
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) return;
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) child++;
+            if (counts[heap[at]] <= counts[heap[child]]) return;
+            swap(at, child);
+            at = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int entry = heap[a];
+        heap[a] = heap[b];
+        heap[b] = entry;
+        heapSlot[heap[a]] = a;
+        heapSlot[heap[b]] = b;
+    }
+
+    private static int hash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + name.charAt(i);
+        }
+        return mix(h);
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+}
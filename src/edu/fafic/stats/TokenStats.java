@@ -0,0 +1,139 @@
+package edu.fafic.stats;
+
+import edu.fafic.core.Diagnostics;
+import edu.fafic.core.Engine;
+import edu.fafic.core.Lexer;
+import edu.fafic.source.MappedSource;
+import edu.fafic.source.Source;
+import edu.fafic.token.Type;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Counts of the token types of a corpus, and optionally its most frequent identifiers, without making tokens:
+// the lexer only fills arrays of types and positions, and an identifier is only read from the source by the
+// sketch. Invalid text, malformed UTF-8 included, is counted as INVALID tokens instead of stopping the count. Each
+// worker counts into its own stats, which are then merged.
+public final class TokenStats {
+
+    private static final int BATCH = 4096;
+    private static final int SKETCH_FACTOR = 8; // sketch entries per identifier asked for, for tighter counts
+
+    private static final Type[] TYPES = Type.values();
+    private static final int IDENTIFIER = Type.IDENTIFIER.ordinal();
+
+    private final Engine engine;
+    private final int topIdentifiers;
+    private final long[] counts;
+    private final HeavyHitters identifiers; // null when identifiers are not tracked
+    private final int[] types;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    private long files;
+    private long units;
+
+    public TokenStats() {
+        this(Engine.TABLE, 0);
+    }
+
+    public TokenStats(Engine engine, int topIdentifiers) {
+        if (topIdentifiers < 0) throw new IllegalArgumentException("Identifier count must not be negative");
+
+        this.engine = engine;
+        this.topIdentifiers = topIdentifiers;
+        this.counts = new long[TYPES.length];
+        this.identifiers = topIdentifiers > 0 ? new HeavyHitters(topIdentifiers * SKETCH_FACTOR) : null;
+        this.types = new int[BATCH];
+        this.offsets = new int[BATCH];
+        this.lengths = new int[BATCH];
+        this.files = 0;
+        this.units = 0;
+    }
+
+    // Lexes the files on the common fork-join pool, one stats per worker
+    public static TokenStats of(Collection<Path> files, Engine engine, int topIdentifiers) {
+        return files.parallelStream().collect(
+                () -> new TokenStats(engine, topIdentifiers),
+                TokenStats::count,
+                TokenStats::merge);
+    }
+
+    public void count(Path file) {
+        try {
+            count(MappedSource.open(file));
+        } catch (IOException e) {
+            throw new RuntimeException("I/O error while reading " + file, e);
+        }
+    }
+
+    public void count(Source source) {
+        Lexer lexer = new Lexer(source, engine, new Diagnostics(1));
+        int n;
+
+        while ((n = lexer.nextTokens(types, offsets, lengths)) > 0) {
+            for (int i = 0; i < n; i++) {
+                counts[types[i]]++;
+            }
+
+            if (identifiers != null) {
+                for (int i = 0; i < n; i++) {
+                    if (types[i] == IDENTIFIER) identifiers.add(source, offsets[i], offsets[i] + lengths[i]);
+                }
+            }
+        }
+
+        files++;
+        units += source.position();
+    }
+
+    public TokenStats merge(TokenStats other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        if (identifiers != null && other.identifiers != null) identifiers.merge(other.identifiers);
+
+        files += other.files;
+        units += other.units;
+        return this;
+    }
+
+    public long count(Type type) {
+        return counts[type.ordinal()];
+    }
+
+    // Only the types that were seen
+    public Map<Type, Long> counts() {
+        Map<Type, Long> seen = new EnumMap<>(Type.class);
+        for (Type type : TYPES) {
+            if (counts[type.ordinal()] != 0) seen.put(type, counts[type.ordinal()]);
+        }
+        return seen;
+    }
+
+    public long tokens() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long files() {
+        return files;
+    }
+
+    // In the unit of the source offsets, bytes for files
+    public long units() {
+        return units;
+    }
+
+    // Empty when identifiers are not tracked
+    public List<HeavyHitter> topIdentifiers() {
+        return identifiers == null ? List.of() : identifiers.top(topIdentifiers);
+    }
+}
@@ -0,0 +1,63 @@
+package edu.fafic.token;
+
+import edu.fafic.source.Source;
+
+import java.util.Arrays;
+
+// For one lexer, or several used from the same thread
+public final class LocalSymbolTable implements SymbolTable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final SymbolHash hash;
+
+    private String[] names;
+    private int size;
+
+    public LocalSymbolTable() {
+        this.hash = new SymbolHash(INITIAL_CAPACITY);
+        this.names = new String[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    @Override
+    public int intern(Source source, int start, int end) {
+        if (!SymbolHash.isAscii(source, start, end)) return intern(source.text(start, end));
+
+        int h = SymbolHash.hash(source, start, end);
+        int id = hash.find(source, start, end, h);
+        if (id >= 0) return id;
+
+        id = size;
+        hash.insert(source, start, end, h, id);
+        return add(source.text(start, end));
+    }
+
+    private int intern(String name) {
+        int h = SymbolHash.hash(name);
+        int id = hash.find(name, h);
+        if (id >= 0) return id;
+
+        hash.insert(name, h, size);
+        return add(name);
+    }
+
+    private int add(String name) {
+        if (size == names.length) names = Arrays.copyOf(names, size * 2);
+        names[size] = name;
+        return size++;
+    }
+
+    @Override
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Symbol %d out of bounds for %d symbols".formatted(id, size));
+        }
+        return names[id];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,94 @@
+package edu.fafic.token;
+
+import edu.fafic.source.Source;
+
+import java.util.Arrays;
+
+// For lexers on many threads. Keys are spread over independently locked stripes, ids come from one counter
+// so they stay dense, and names live in fixed-size pages that are never copied. A name is written before the
+// volatile size that makes its id valid, so name() can read it without a lock.
+public final class SharedSymbolTable implements SymbolTable {
+
+    private static final int STRIPES = 64;
+    private static final int STRIPE_CAPACITY = 64;
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final SymbolHash[] stripes;
+    private final Object pagesLock;
+
+    private volatile String[][] pages;
+    private volatile int size;
+
+    public SharedSymbolTable() {
+        this.stripes = new SymbolHash[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new SymbolHash(STRIPE_CAPACITY);
+        }
+
+        this.pagesLock = new Object();
+        this.pages = new String[][]{new String[PAGE_SIZE]};
+        this.size = 0;
+    }
+
+    @Override
+    public int intern(Source source, int start, int end) {
+        if (!SymbolHash.isAscii(source, start, end)) return intern(source.text(start, end));
+
+        int h = SymbolHash.hash(source, start, end);
+        SymbolHash stripe = stripes[(h >>> 24) & (STRIPES - 1)];
+
+        synchronized (stripe) {
+            int id = stripe.find(source, start, end, h);
+            if (id >= 0) return id;
+
+            id = publish(source.text(start, end));
+            stripe.insert(source, start, end, h, id);
+            return id;
+        }
+    }
+
+    private int intern(String name) {
+        int h = SymbolHash.hash(name);
+        SymbolHash stripe = stripes[(h >>> 24) & (STRIPES - 1)];
+
+        synchronized (stripe) {
+            int id = stripe.find(name, h);
+            if (id >= 0) return id;
+
+            id = publish(name);
+            stripe.insert(name, h, id);
+            return id;
+        }
+    }
+
+    @Override
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Symbol %d out of bounds for %d symbols".formatted(id, size));
+        }
+        return pages[id >>> PAGE_BITS][id & (PAGE_SIZE - 1)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int publish(String name) {
+        synchronized (pagesLock) {
+            int id = size;
+            int page = id >>> PAGE_BITS;
+
+            if (page == pages.length) {
+                String[][] grown = Arrays.copyOf(pages, page + 1);
+                grown[page] = new String[PAGE_SIZE];
+                pages = grown;
+            }
+
+            pages[page][id & (PAGE_SIZE - 1)] = name;
+            size = id + 1;
+            return id;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package edu.fafic.token;
+
+import edu.fafic.source.Source;
+
+import java.util.Arrays;
+
+// Open addressing over the source units of each key, which are copied into one char pool.
+// A MappedSource gives bytes, they fit in a char and are compared as they are. Above ASCII those bytes are not
+// the chars of the name, so such keys must be looked up by their text, which every source gives the same.
+final class SymbolHash {
+
+    private int[] slots; // entry + 1, 0 when empty
+    private int[] hashes;
+    private int[] starts;
+    private int[] lengths;
+    private int[] values;
+    private char[] pool;
+    private int size;
+    private int used;
+
+    // The capacity must be a power of two
+    SymbolHash(int capacity) {
+        this.slots = new int[capacity * 2];
+        this.hashes = new int[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.values = new int[capacity];
+        this.pool = new char[capacity * 8];
+        this.size = 0;
+        this.used = 0;
+    }
+
+    static boolean isAscii(Source source, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (source.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    static int hash(Source source, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + source.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    static int hash(String key) {
+        int h = 0;
+        for (int i = 0; i < key.length(); i++) {
+            h = 31 * h + key.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    // The value stored for the key, -1 when it is absent
+    int find(Source source, int start, int end, int hash) {
+        int mask = slots.length - 1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) return -1;
+            if (hashes[entry] == hash && matches(entry, source, start, end)) return values[entry];
+        }
+    }
+
+    int find(String key, int hash) {
+        int mask = slots.length - 1;
+
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) return -1;
+            if (hashes[entry] == hash && matches(entry, key)) return values[entry];
+        }
+    }
+
+    // The key must be absent
+    void insert(Source source, int start, int end, int hash, int value) {
+        int at = reserve(end - start);
+        for (int i = start; i < end; i++) {
+            pool[at++] = (char) source.charAt(i);
+        }
+        add(end - start, hash, value);
+    }
+
+    void insert(String key, int hash, int value) {
+        key.getChars(0, key.length(), pool, reserve(key.length()));
+        add(key.length(), hash, value);
+    }
+
+    // Where the next key goes in the pool
+    private int reserve(int length) {
+        if (size == hashes.length) grow();
+        if (used + length > pool.length) pool = Arrays.copyOf(pool, Math.max(pool.length * 2, used + length));
+        return used;
+    }
+
+    private void add(int length, int hash, int value) {
+        hashes[size] = hash;
+        starts[size] = used;
+        lengths[size] = length;
+        values[size] = value;
+        place(size);
+
+        used += length;
+        size++;
+    }
+
+    private boolean matches(int entry, Source source, int start, int end) {
+        if (lengths[entry] != end - start) return false;
+
+        int at = starts[entry];
+        for (int i = start; i < end; i++) {
+            if (pool[at++] != source.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private boolean matches(int entry, String key) {
+        if (lengths[entry] != key.length()) return false;
+
+        int at = starts[entry];
+        for (int i = 0; i < key.length(); i++) {
+            if (pool[at++] != key.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private void place(int entry) {
+        int mask = slots.length - 1;
+        int slot = hashes[entry] & mask;
+
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry + 1;
+    }
+
+    // Slots stay at twice the entries, so the load factor never goes over one half
+    private void grow() {
+        int capacity = hashes.length * 2;
+
+        hashes = Arrays.copyOf(hashes, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        values = Arrays.copyOf(values, capacity);
+        slots = new int[capacity * 2];
+
+        for (int entry = 0; entry < size; entry++) {
+            place(entry);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package edu.fafic.token;
+
+import edu.fafic.source.Source;
+
+// Dense integer ids for identifier lexemes, looked up straight from the source text
+public interface SymbolTable {
+
+    // The id of the text between start and end, added with the next free id when it is new
+    int intern(Source source, int start, int end);
+
+    String name(int id);
+
+    int size();
+}
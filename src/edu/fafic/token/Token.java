@@ -1,6 +1,13 @@
 package edu.fafic.token;
 
-public record Token(Type type, String lexeme) {
+// The symbol is the identifier id given by a SymbolTable, NO_SYMBOL for other tokens or without a table
+public record Token(Type type, String lexeme, int offset, int symbol) {
+
+    public static final int NO_SYMBOL = -1;
+
+    public Token(Type type, String lexeme, int offset) {
+        this(type, lexeme, offset, NO_SYMBOL);
+    }
 
     public boolean isEOF() {
         return this.type == Type.EOF;
@@ -0,0 +1,158 @@
+package edu.fafic.token;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads the format of TokenWriter straight from its bytes, usually a mapped file. Tokens are decoded one at a
+// time as the reader moves forward, a lexeme only becomes a String when it is asked for, once per table entry.
+// Every read is checked against the end of the bytes, and the last token must be EOF, so a truncated or
+// damaged file fails with an IOException instead of giving wrong tokens.
+public final class TokenReader {
+
+    private static final Type[] TYPES = Type.values();
+
+    private final ByteBuffer bytes;
+    private final int limit;
+
+    private int position;
+    private Type type;
+    private int offset;
+    private int length;
+    private int string;
+
+    private int[] stringStarts;
+    private int[] stringLengths;
+    private String[] decoded;
+    private int strings;
+
+    public TokenReader(ByteBuffer bytes) throws IOException {
+        this.bytes = bytes;
+        this.limit = bytes.limit();
+        this.position = bytes.position();
+        this.type = null;
+        this.offset = 0;
+        this.length = 0;
+        this.string = -1;
+        this.stringStarts = new int[256];
+        this.stringLengths = new int[256];
+        this.decoded = new String[256];
+        this.strings = 0;
+
+        if (limit - position < 5 || bytes.getInt(position) != TokenWriter.MAGIC) {
+            throw new IOException("Not a token file");
+        }
+        int version = bytes.get(position + 4);
+        if (version != TokenWriter.VERSION) {
+            throw new IOException("Unsupported token file version %d".formatted(version));
+        }
+        position += 5;
+    }
+
+    public static TokenReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to be mapped: " + path);
+            }
+
+            return new TokenReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    // False after EOF, which is the last token of every file
+    public boolean next() throws IOException {
+        if (type == Type.EOF) {
+            if (position < limit) throw corrupt("data after EOF");
+            return false;
+        }
+        if (position >= limit) throw corrupt("it does not end with EOF");
+
+        int ordinal = readVarint();
+        if (ordinal >= TYPES.length) throw corrupt("unknown token type %d".formatted(ordinal));
+
+        int start = offset + length + readVarint();
+        int size = readVarint();
+        if (start < 0 || start + size < 0) throw corrupt("token offset out of range");
+
+        type = TYPES[ordinal];
+        offset = start;
+        length = size;
+        string = type.hasFixedText() ? -1 : readString();
+        return true;
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public String lexeme() {
+        if (string < 0) return type.text();
+
+        String text = decoded[string];
+        if (text == null) {
+            byte[] utf8 = new byte[stringLengths[string]];
+            bytes.get(stringStarts[string], utf8);
+            text = new String(utf8, StandardCharsets.UTF_8);
+            decoded[string] = text;
+        }
+        return text;
+    }
+
+    public Token token() {
+        return new Token(type, lexeme(), offset);
+    }
+
+    private int readString() throws IOException {
+        int index = readVarint();
+        if (index < strings) return index;
+        if (index > strings) throw corrupt("string %d defined before string %d".formatted(index, strings));
+
+        if (strings == stringStarts.length) {
+            stringStarts = Arrays.copyOf(stringStarts, strings * 2);
+            stringLengths = Arrays.copyOf(stringLengths, strings * 2);
+            decoded = Arrays.copyOf(decoded, strings * 2);
+        }
+
+        int size = readVarint();
+        if (size > limit - position) throw corrupt("string of %d bytes runs past the end".formatted(size));
+
+        stringStarts[strings] = position;
+        stringLengths[strings] = size;
+        position += size;
+        return strings++;
+    }
+
+    // At most five bytes, the last one only gives the top four bits of a non-negative int
+    private int readVarint() throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (position >= limit) throw corrupt("truncated varint");
+
+            byte b = bytes.get(position++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (shift == 28 && b > 0x07) throw corrupt("varint out of range");
+                return value;
+            }
+        }
+        throw corrupt("varint out of range");
+    }
+
+    private IOException corrupt(String reason) {
+        return new IOException("Corrupt token file at byte %d: %s".formatted(position, reason));
+    }
+}
@@ -0,0 +1,42 @@
+package edu.fafic.token;
+
+import edu.fafic.source.Source;
+
+public record TokenSpan(Type type, int offset, int length, Source source) {
+
+    public String lexeme() {
+        return lexeme(type, offset, length, source);
+    }
+
+    public boolean isEOF() {
+        return this.type == Type.EOF;
+    }
+
+    public Token toToken() {
+        return new Token(type, lexeme(), offset);
+    }
+
+    public static String lexeme(Type type, int offset, int length, Source source) {
+        if (type.hasFixedText()) return type.text();
+
+        String text = source.text(offset, offset + length);
+
+        // Digit separators are skipped by the automaton, so they never belong to the lexeme
+        if (isNumber(type) && text.indexOf('_') >= 0) {
+            return text.replace("_", "");
+        }
+        return text;
+    }
+
+    private static boolean isNumber(Type type) {
+        return switch (type) {
+            case LITERAL_INTEGER, LITERAL_LONG, LITERAL_FLOAT, LITERAL_DOUBLE -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "<{ %s, %d+%d }>".formatted(type, offset, length);
+    }
+}
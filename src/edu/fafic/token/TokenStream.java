@@ -0,0 +1,186 @@
+package edu.fafic.token;
+
+import edu.fafic.source.Source;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+public final class TokenStream {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final Type[] TYPES = Type.values();
+
+    private final Source source;
+
+    private byte[] types;
+    private int[] offsets;
+    private int[] lengths;
+    private int[] symbols; // null until a symbol is added
+    private int size;
+
+    public TokenStream(Source source) {
+        this(source, INITIAL_CAPACITY);
+    }
+
+    public TokenStream(Source source, int capacity) {
+        this.source = source;
+        this.types = new byte[capacity];
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+        this.symbols = null;
+        this.size = 0;
+    }
+
+    // Takes the columns as they are, one token per element. The stream never writes into them, adding a token
+    // first copies them into larger arrays, so the same columns can back several streams.
+    public TokenStream(Source source, byte[] types, int[] offsets, int[] lengths) {
+        if (offsets.length != types.length || lengths.length != types.length) {
+            throw new IllegalArgumentException("Token columns must have the same length");
+        }
+
+        this.source = source;
+        this.types = types;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.symbols = null;
+        this.size = types.length;
+    }
+
+    public void add(Type type, int offset, int length) {
+        if (size == types.length) grow();
+
+        types[size] = (byte) type.ordinal();
+        offsets[size] = offset;
+        lengths[size] = length;
+        size++;
+    }
+
+    public void add(Type type, int offset, int length, int symbol) {
+        if (symbols == null && symbol != Token.NO_SYMBOL) {
+            symbols = new int[types.length];
+            Arrays.fill(symbols, Token.NO_SYMBOL);
+        }
+
+        if (size == types.length) grow();
+        if (symbols != null) symbols[size] = symbol;
+        add(type, offset, length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Source source() {
+        return source;
+    }
+
+    // Copies of the columns, trimmed to the tokens added so far
+    public byte[] types() {
+        return Arrays.copyOf(types, size);
+    }
+
+    public int[] offsets() {
+        return Arrays.copyOf(offsets, size);
+    }
+
+    public int[] lengths() {
+        return Arrays.copyOf(lengths, size);
+    }
+
+    public Type type(int index) {
+        return TYPES[types[check(index)]];
+    }
+
+    public int offset(int index) {
+        return offsets[check(index)];
+    }
+
+    public int length(int index) {
+        return lengths[check(index)];
+    }
+
+    public int symbol(int index) {
+        check(index);
+        return symbols == null ? Token.NO_SYMBOL : symbols[index];
+    }
+
+    public String lexeme(int index) {
+        return TokenSpan.lexeme(type(index), offsets[index], lengths[index], source);
+    }
+
+    public TokenSpan span(int index) {
+        return new TokenSpan(type(index), offsets[index], lengths[index], source);
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int check(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token index %d out of bounds for %d tokens".formatted(index, size));
+        }
+        return index;
+    }
+
+    private void grow() {
+        int capacity = Math.max(types.length * 2, INITIAL_CAPACITY);
+        types = Arrays.copyOf(types, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+
+        if (symbols != null) {
+            int from = symbols.length;
+            symbols = Arrays.copyOf(symbols, capacity);
+            Arrays.fill(symbols, from, capacity, Token.NO_SYMBOL);
+        }
+    }
+
+    public final class Cursor {
+
+        private int index = -1;
+
+        private Cursor() {
+        }
+
+        public boolean next() {
+            if (index + 1 >= size) return false;
+            index++;
+            return true;
+        }
+
+        public void seek(int index) {
+            this.index = check(index);
+        }
+
+        public int index() {
+            return current();
+        }
+
+        public Type type() {
+            return TYPES[types[current()]];
+        }
+
+        public int offset() {
+            return offsets[current()];
+        }
+
+        public int length() {
+            return lengths[current()];
+        }
+
+        public int symbol() {
+            return TokenStream.this.symbol(current());
+        }
+
+        public String lexeme() {
+            return TokenStream.this.lexeme(current());
+        }
+
+        private int current() {
+            if (index < 0) throw new NoSuchElementException("The cursor is not on a token");
+            return index;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package edu.fafic.token;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// Writes tokens in the binary token format, one at a time, in source order:
+//   file   := magic:int32 version:byte token*
+//   token  := type:varint gap:varint length:varint [lexeme:varint]
+// The gap is the distance from the end of the previous token. Tokens with a fixed text have no lexeme, the
+// others give an index into a string table that the file builds as it goes: the next free index is followed
+// by the length and UTF-8 bytes of a new string. Varints are unsigned LEB128. The last token must be EOF, a
+// reader takes a file without it as truncated.
+public final class TokenWriter implements Closeable {
+
+    static final int MAGIC = 0x544B4E42; // "TKNB"
+    static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final Map<String, Integer> strings;
+
+    private int count;
+    private int end;
+
+    public TokenWriter(OutputStream out) throws IOException {
+        this.out = out;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.strings = new HashMap<>();
+        this.count = 0;
+        this.end = 0;
+
+        writeInt(MAGIC);
+        writeByte(VERSION);
+    }
+
+    public void write(TokenStream tokens) throws IOException {
+        TokenStream.Cursor cursor = tokens.cursor();
+
+        while (cursor.next()) {
+            write(cursor.type(), cursor.offset(), cursor.length(), cursor.type().hasFixedText() ? null : cursor.lexeme());
+        }
+    }
+
+    public void write(TokenSpan span) throws IOException {
+        write(span.type(), span.offset(), span.length(), span.type().hasFixedText() ? null : span.lexeme());
+    }
+
+    // The lexeme is ignored for types with a fixed text
+    public void write(Type type, int offset, int length, String lexeme) throws IOException {
+        if (offset < end) {
+            throw new IllegalArgumentException("Token at %d starts before the end of the previous one at %d".formatted(offset, end));
+        }
+
+        writeVarint(type.ordinal());
+        writeVarint(offset - end);
+        writeVarint(length);
+        end = offset + length;
+
+        if (type.hasFixedText()) return;
+
+        Integer index = strings.get(lexeme);
+        if (index != null) {
+            writeVarint(index);
+            return;
+        }
+
+        byte[] utf8 = lexeme.getBytes(StandardCharsets.UTF_8);
+        writeVarint(strings.size());
+        writeVarint(utf8.length);
+        writeBytes(utf8);
+        strings.put(lexeme, strings.size());
+    }
+
+    public void flush() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeVarint(int value) throws IOException {
+        if (count + 5 > buffer.length) drain();
+
+        while ((value & ~0x7F) != 0) {
+            buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[count++] = (byte) value;
+    }
+
+    private void writeInt(int value) throws IOException {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            writeByte(value >>> shift);
+        }
+    }
+
+    private void writeByte(int value) throws IOException {
+        if (count == buffer.length) drain();
+        buffer[count++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (count + bytes.length > buffer.length) drain();
+
+        if (bytes.length > buffer.length) {
+            out.write(bytes);
+            return;
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+    }
+}
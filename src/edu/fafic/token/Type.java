@@ -9,105 +9,123 @@ public enum Type {
     LITERAL_DOUBLE,
     LITERAL_STRING,
     LITERAL_CHAR,
-    LITERAL_TRUE,
-    LITERAL_FALSE,
-    LITERAL_NULL,
-
-    KEYWORD_ABSTRACT,
-    KEYWORD_BOOLEAN,
-    KEYWORD_BREAK,
-    KEYWORD_CASE,
-    KEYWORD_CATCH,
-    KEYWORD_CHAR,
-    KEYWORD_CLASS,
-    KEYWORD_CONTINUE,
-    KEYWORD_DEFAULT,
-    KEYWORD_DO,
-    KEYWORD_DOUBLE,
-    KEYWORD_ELSE,
-    KEYWORD_ENUM,
-    KEYWORD_EXTENDS,
-    KEYWORD_FINAL,
-    KEYWORD_FINALLY,
-    KEYWORD_FLOAT,
-    KEYWORD_FOR,
-    KEYWORD_IF,
-    KEYWORD_IMPLEMENTS,
-    KEYWORD_IMPORT,
-    KEYWORD_INT,
-    KEYWORD_INTERFACE,
-    KEYWORD_LONG,
-    KEYWORD_NEW,
-    KEYWORD_PACKAGE,
-    KEYWORD_PRIVATE,
-    KEYWORD_PROTECTED,
-    KEYWORD_PUBLIC,
-    KEYWORD_RETURN,
-    KEYWORD_SHORT,
-    KEYWORD_STATIC,
-    KEYWORD_SUPER,
-    KEYWORD_SWITCH,
-    KEYWORD_THIS,
-    KEYWORD_THROW,
-    KEYWORD_THROWS,
-    KEYWORD_TRY,
-    KEYWORD_VOID,
-    KEYWORD_WHILE,
-
-    ASSIGN,                 // =
-
-    RELATIONAL_EQUALS,      // ==
-    RELATIONAL_NOT_EQUALS,  // !=
-    RELATIONAL_LESS,        // <
-    RELATIONAL_LESS_EQUAL,  // <=
-    RELATIONAL_GREATER,     // >
-    RELATIONAL_GREATER_EQUAL, // >=
-
-    LOGICAL_AND,            // &&
-    LOGICAL_OR,             // ||
-    LOGICAL_NOT,            // !
-
-    TERNARY,                // ?
-
-    BITWISE_AND,            // &
-    BITWISE_OR,             // |
-    BITWISE_XOR,            // ^
-    BITWISE_NOT,            // ~
-    BITWISE_AND_EQUALS,     // &=
-    BITWISE_OR_EQUALS,      // |=
-    BITWISE_XOR_EQUALS,     // ^=
-    BITWISE_NOT_EQUALS,     // ~=
-
-    ADD,                    // +
-    SUB,                    // -
-    MUL,                    // *
-    DIV,                    // /
-    MOD,                    // %
-
-    INCREMENT,              // ++
-    DECREMENT,              // --
-
-    ADD_EQUALS,             // +=
-    SUB_EQUALS,             // -=
-    MUL_EQUALS,             // *=
-    DIV_EQUALS,             // /=
-    MOD_EQUALS,             // %=
-
-    ARROW,                  // ->
-
-    DOT,                    // .
-    COMMA,                  // ,
-    COLON,                  // :
-    SEMICOLON,              // ;
-    AT,                     // @
-    LPAREN,                 // (
-    RPAREN,                 // )
-    LBRACE,                 // {
-    RBRACE,                 // }
-    LBRACKET,               // [
-    RBRACKET,               // ]
-
-    EOF,                    // End of file
-    INVALID                 // Default
+    LITERAL_TRUE("true"),
+    LITERAL_FALSE("false"),
+    LITERAL_NULL("null"),
+
+    KEYWORD_ABSTRACT("abstract"),
+    KEYWORD_BOOLEAN("boolean"),
+    KEYWORD_BREAK("break"),
+    KEYWORD_CASE("case"),
+    KEYWORD_CATCH("catch"),
+    KEYWORD_CHAR("char"),
+    KEYWORD_CLASS("class"),
+    KEYWORD_CONTINUE("continue"),
+    KEYWORD_DEFAULT("default"),
+    KEYWORD_DO("do"),
+    KEYWORD_DOUBLE("double"),
+    KEYWORD_ELSE("else"),
+    KEYWORD_ENUM("enum"),
+    KEYWORD_EXTENDS("extends"),
+    KEYWORD_FINAL("final"),
+    KEYWORD_FINALLY("finally"),
+    KEYWORD_FLOAT("float"),
+    KEYWORD_FOR("for"),
+    KEYWORD_IF("if"),
+    KEYWORD_IMPLEMENTS("implements"),
+    KEYWORD_IMPORT("import"),
+    KEYWORD_INT("int"),
+    KEYWORD_INTERFACE("interface"),
+    KEYWORD_LONG("long"),
+    KEYWORD_NEW("new"),
+    KEYWORD_PACKAGE("package"),
+    KEYWORD_PRIVATE("private"),
+    KEYWORD_PROTECTED("protected"),
+    KEYWORD_PUBLIC("public"),
+    KEYWORD_RETURN("return"),
+    KEYWORD_SHORT("short"),
+    KEYWORD_STATIC("static"),
+    KEYWORD_SUPER("super"),
+    KEYWORD_SWITCH("switch"),
+    KEYWORD_THIS("this"),
+    KEYWORD_THROW("throw"),
+    KEYWORD_THROWS("throws"),
+    KEYWORD_TRY("try"),
+    KEYWORD_VOID("void"),
+    KEYWORD_WHILE("while"),
+
+    ASSIGN("="),
+
+    RELATIONAL_EQUALS("=="),
+    RELATIONAL_NOT_EQUALS("!="),
+    RELATIONAL_LESS("<"),
+    RELATIONAL_LESS_EQUAL("<="),
+    RELATIONAL_GREATER(">"),
+    RELATIONAL_GREATER_EQUAL(">="),
+
+    LOGICAL_AND("&&"),
+    LOGICAL_OR("||"),
+    LOGICAL_NOT("!"),
+
+    TERNARY("?"),
+
+    BITWISE_AND("&"),
+    BITWISE_OR("|"),
+    BITWISE_XOR("^"),
+    BITWISE_NOT("~"),
+    BITWISE_AND_EQUALS("&="),
+    BITWISE_OR_EQUALS("|="),
+    BITWISE_XOR_EQUALS("^="),
+    BITWISE_NOT_EQUALS("~="),
+
+    ADD("+"),
+    SUB("-"),
+    MUL("*"),
+    DIV("/"),
+    MOD("%"),
+
+    INCREMENT("++"),
+    DECREMENT("--"),
+
+    ADD_EQUALS("+="),
+    SUB_EQUALS("-="),
+    MUL_EQUALS("*="),
+    DIV_EQUALS("/="),
+    MOD_EQUALS("%="),
+
+    ARROW("->"),
+
+    DOT("."),
+    COMMA(","),
+    COLON(":"),
+    SEMICOLON(";"),
+    AT("@"),
+    LPAREN("("),
+    RPAREN(")"),
+    LBRACE("{"),
+    RBRACE("}"),
+    LBRACKET("["),
+    RBRACKET("]"),
+
+    EOF(""),                // End of file
+    INVALID;                // Default
+
+    private final String text;
+
+    Type() {
+        this(null);
+    }
+
+    Type(String text) {
+        this.text = text;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public boolean hasFixedText() {
+        return text != null;
+    }
 }
 
@@ -3,6 +3,8 @@ package edu.fafic.vocabulary;
 public final class Alphabet {
 
     public static final int EOF = -1;
+    // Read from a source that is still receiving input, nothing else has arrived yet
+    public static final int MORE = -2;
 
     private Alphabet() {
     }
@@ -12,10 +14,12 @@ public final class Alphabet {
     }
 
     public static boolean isLetter(int ch) {
+        if (CharTable.isAscii(ch)) return CharTable.is(ch, CharTable.LETTER);
         return Character.isLetter(ch);
     }
 
     public static boolean isDigit(int ch) {
+        if (CharTable.isAscii(ch)) return CharTable.is(ch, CharTable.DIGIT);
         return Character.isDigit(ch);
     }
 
@@ -28,14 +32,17 @@ public final class Alphabet {
     }
 
     public static boolean isIdentifierStart(int ch) {
-        return isLetter(ch) || isUnderline(ch) || isDollar(ch);
+        if (CharTable.isAscii(ch)) return CharTable.is(ch, CharTable.IDENTIFIER_START);
+        return Character.isLetter(ch);
     }
 
     public static boolean isIdentifierPart(int ch) {
-        return isLetter(ch) || isDigit(ch) || isUnderline(ch) || isDollar(ch);
+        if (CharTable.isAscii(ch)) return CharTable.is(ch, CharTable.IDENTIFIER_PART);
+        return Character.isLetterOrDigit(ch);
     }
 
     public static boolean isWhitespace(int ch) {
+        if (CharTable.isAscii(ch)) return CharTable.is(ch, CharTable.WHITESPACE);
         return Character.isWhitespace(ch);
     }
 
@@ -0,0 +1,49 @@
+package edu.fafic.vocabulary;
+
+// Predicates of the vocabulary for ASCII characters, answered with a single array load
+final class CharTable {
+
+    static final int LETTER = 1;
+    static final int DIGIT = 1 << 1;
+    static final int WHITESPACE = 1 << 2;
+    static final int IDENTIFIER_START = 1 << 3;
+    static final int IDENTIFIER_PART = 1 << 4;
+    static final int PUNCTUATION = 1 << 5;
+    static final int ARITHMETIC = 1 << 6;
+    static final int LOGICAL = 1 << 7;
+    static final int RELATIONAL = 1 << 8;
+    static final int BITWISE = 1 << 9;
+
+    private static final short[] FLAGS = new short[128];
+
+    static {
+        for (char ch = 0; ch < 128; ch++) {
+            int flags = 0;
+
+            if (Character.isLetter(ch)) flags |= LETTER;
+            if (Character.isDigit(ch)) flags |= DIGIT;
+            if (Character.isWhitespace(ch)) flags |= WHITESPACE;
+            if (Character.isLetter(ch) || ch == '_' || ch == '$') flags |= IDENTIFIER_START;
+            if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '$') flags |= IDENTIFIER_PART;
+            if (Punctuation.ALL.containsKey(ch)) flags |= PUNCTUATION;
+            if (Operators.ARITHMETIC.contains(ch)) flags |= ARITHMETIC;
+            if (Operators.LOGICAL.contains(ch)) flags |= LOGICAL;
+            if (Operators.RELATIONAL.contains(ch)) flags |= RELATIONAL;
+            if (Operators.BITWISE.contains(ch)) flags |= BITWISE;
+
+            FLAGS[ch] = (short) flags;
+        }
+    }
+
+    private CharTable() {
+    }
+
+    static boolean isAscii(int ch) {
+        return (ch & ~0x7F) == 0;
+    }
+
+    // Always false above ASCII, callers fall back to the Unicode predicates there
+    static boolean is(int ch, int flag) {
+        return isAscii(ch) && (FLAGS[ch] & flag) != 0;
+    }
+}
@@ -1,7 +1,9 @@
 package edu.fafic.vocabulary;
 
+import edu.fafic.source.Source;
 import edu.fafic.token.Type;
 
+import java.util.List;
 import java.util.Map;
 
 public final class Keywords {
@@ -55,17 +57,65 @@ public final class Keywords {
             Map.entry("null", Type.LITERAL_NULL)
     );
 
+    // Perfect hash over the first, second and last characters plus the length, see slot()
+    private static final Type[] TABLE = new Type[128];
+
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 10;
+
+    static {
+        for (Map<String, Type> words : List.of(ALL, CONSTANT_LITERALS)) {
+            words.forEach((word, type) -> {
+                int slot = slot(word.length(), word.charAt(0), word.charAt(1), word.charAt(word.length() - 1));
+                if (TABLE[slot] != null) {
+                    throw new IllegalStateException("Keywords %s and %s share a slot".formatted(TABLE[slot], type));
+                }
+                TABLE[slot] = type;
+            });
+        }
+    }
+
     private Keywords() {
     }
 
-    public static Type resolve(String lexeme) {
-        if (CONSTANT_LITERALS.containsKey(lexeme)) {
-            return CONSTANT_LITERALS.get(lexeme);
+    public static Type resolve(CharSequence lexeme) {
+        int n = lexeme.length();
+        if (n < MIN_LENGTH || n > MAX_LENGTH) return Type.IDENTIFIER;
+
+        Type type = TABLE[slot(n, lexeme.charAt(0), lexeme.charAt(1), lexeme.charAt(n - 1))];
+        if (type == null) return Type.IDENTIFIER;
+
+        String text = type.text();
+        if (text.length() != n) return Type.IDENTIFIER;
+
+        for (int i = 0; i < n; i++) {
+            if (lexeme.charAt(i) != text.charAt(i)) return Type.IDENTIFIER;
+        }
+        return type;
+    }
+
+    // Same lookup straight over the source, a keyword never needs its lexeme to be copied
+    public static Type resolve(Source source, int start, int end) {
+        int n = end - start;
+        if (n < MIN_LENGTH || n > MAX_LENGTH) return Type.IDENTIFIER;
+
+        Type type = TABLE[slot(n, source.charAt(start), source.charAt(start + 1), source.charAt(end - 1))];
+        if (type == null) return Type.IDENTIFIER;
+
+        String text = type.text();
+        if (text.length() != n) return Type.IDENTIFIER;
+
+        for (int i = 0; i < n; i++) {
+            if (source.charAt(start + i) != text.charAt(i)) return Type.IDENTIFIER;
         }
-        return ALL.getOrDefault(lexeme, Type.IDENTIFIER);
+        return type;
     }
 
     public static boolean contains(String lexeme) {
-        return ALL.containsKey(lexeme) || CONSTANT_LITERALS.containsKey(lexeme);
+        return resolve(lexeme) != Type.IDENTIFIER;
+    }
+
+    private static int slot(int length, int first, int second, int last) {
+        return (3 * first + 52 * second + last + 45 * length) & 127;
     }
 }
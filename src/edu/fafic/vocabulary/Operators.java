@@ -71,11 +71,33 @@ public final class Operators {
             Map.entry("->", Type.ARROW)
     );
 
+    // Operators are at most two ASCII characters, indexed as [first][second] with 0 for a single character
+    private static final Type[][] TABLE = new Type[128][];
+
+    static {
+        for (Map.Entry<String, Type> entry : ALL.entrySet()) {
+            String op = entry.getKey();
+            char first = op.charAt(0);
+            char second = op.length() > 1 ? op.charAt(1) : 0;
+
+            if (TABLE[first] == null) TABLE[first] = new Type[128];
+            TABLE[first][second] = entry.getValue();
+        }
+    }
+
     private Operators() {
     }
 
-    public static Type resolve(String lexeme) {
-        return ALL.getOrDefault(lexeme, Type.INVALID);
+    public static Type resolve(CharSequence lexeme) {
+        int n = lexeme.length();
+        if (n == 0 || n > 2) return Type.INVALID;
+
+        char first = lexeme.charAt(0);
+        char second = n > 1 ? lexeme.charAt(1) : 0;
+        if (first >= 128 || second >= 128 || TABLE[first] == null) return Type.INVALID;
+
+        Type type = TABLE[first][second];
+        return type != null ? type : Type.INVALID;
     }
 
     public static boolean isAssignment(int ch) {
@@ -87,18 +109,18 @@ public final class Operators {
     }
 
     public static boolean isArithmetic(int ch) {
-        return ARITHMETIC.contains((char) ch);
+        return CharTable.is(ch, CharTable.ARITHMETIC);
     }
 
     public static boolean isLogical(int ch) {
-        return LOGICAL.contains((char) ch);
+        return CharTable.is(ch, CharTable.LOGICAL);
     }
 
     public static boolean isRelational(int ch) {
-        return RELATIONAL.contains((char) ch);
+        return CharTable.is(ch, CharTable.RELATIONAL);
     }
 
     public static boolean isBitwise(int ch) {
-        return BITWISE.contains((char) ch);
+        return CharTable.is(ch, CharTable.BITWISE);
     }
 }
@@ -6,7 +6,7 @@ import java.util.Map;
 
 public final class Punctuation {
 
-    private static final Map<Character, Type> ALL = Map.ofEntries(
+    static final Map<Character, Type> ALL = Map.ofEntries(
             Map.entry('.', Type.DOT),
             Map.entry(',', Type.COMMA),
             Map.entry(':', Type.COLON),
@@ -20,14 +20,24 @@ public final class Punctuation {
             Map.entry(']', Type.RBRACKET)
     );
 
+    private static final Type[] TYPES = new Type[128];
+
+    static {
+        ALL.forEach((ch, type) -> TYPES[ch] = type);
+    }
+
     private Punctuation() {
     }
 
     public static Type resolve(String lexeme) {
-        return ALL.getOrDefault(lexeme.charAt(0), Type.IDENTIFIER);
+        return resolve(lexeme.charAt(0));
+    }
+
+    public static Type resolve(int ch) {
+        return contains(ch) ? TYPES[ch] : Type.IDENTIFIER;
     }
 
     public static boolean contains(int ch) {
-        return ALL.containsKey((char) ch);
+        return CharTable.is(ch, CharTable.PUNCTUATION);
     }
 }
@@ -0,0 +1,70 @@
+package edu.fafic.batch;
+
+import edu.fafic.core.Engine;
+import edu.fafic.exception.LexicalException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLexerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void failingFilesAreReportedWithoutPrinting() throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Path file = dir.resolve("f" + i + ".code");
+            Files.writeString(file, i % 2 == 0 ? "int x = " + i + ";\n" : "int x = 1;\nx ` y\n");
+            files.add(file);
+        }
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        List<FileResult> results;
+        System.setOut(new PrintStream(printed));
+        try (BatchLexer lexer = new BatchLexer(4, 1 << 20, Engine.TABLE)) {
+            results = lexer.lexAll(files);
+        } finally {
+            System.setOut(out);
+        }
+
+        assertEquals("", printed.toString());
+        for (int i = 0; i < files.size(); i++) {
+            FileResult result = results.get(i);
+            if (i % 2 == 0) {
+                assertTrue(result.isSuccess());
+                assertFalse(result.hasDiagnostics());
+            } else {
+                LexicalException error = assertInstanceOf(LexicalException.class, result.error());
+                assertEquals(13, error.offset());
+            }
+        }
+    }
+
+    @Test
+    void recoveringFilesKeepTheirDiagnostics() throws IOException {
+        Path file = dir.resolve("bad.code");
+        Files.writeString(file, "x ` y ` z\n");
+
+        try (BatchLexer lexer = new BatchLexer(1, 1 << 20, Engine.TABLE, 10)) {
+            FileResult result = lexer.lex(file);
+
+            assertTrue(result.isSuccess());
+            assertEquals(2, result.diagnostics().count());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package edu.fafic.cache;
+
+import edu.fafic.core.Lexer;
+import edu.fafic.source.MappedSource;
+import edu.fafic.token.TokenStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenCacheTest {
+
+    // "a = 1" and the like are four tokens with EOF, 4 * 9 + 128 bytes each
+    private static final long ENTRY = 164;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedOverTheBudget() {
+        TokenCache cache = new TokenCache(2 * ENTRY);
+
+        cache.tokenize(content("a = 1"));
+        cache.tokenize(content("b = 2"));
+        cache.tokenize(content("a = 1"));
+        cache.tokenize(content("c = 3"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.entries());
+        assertEquals(2 * ENTRY, stats.bytes());
+
+        // b was the least recently used
+        cache.tokenize(content("a = 1"));
+        cache.tokenize(content("b = 2"));
+        assertEquals(2, cache.stats().hits());
+        assertEquals(4, cache.stats().misses());
+    }
+
+    @Test
+    void entriesOverTheBudgetAreNotKept() {
+        TokenCache cache = new TokenCache(ENTRY - 1);
+
+        cache.tokenize(content("a = 1"));
+        cache.tokenize(content("a = 1"));
+
+        assertEquals(2, cache.stats().misses());
+        assertEquals(0, cache.stats().entries());
+    }
+
+    @Test
+    void streamsAreReadBackFromDiskByAnotherCache() {
+        String text = "int x = 1; /* é */ String s = \"ç\";";
+        new TokenCache(1 << 20, dir).tokenize(content(text));
+
+        TokenCache restarted = new TokenCache(1 << 20, dir);
+        TokenStream tokens = restarted.tokenize(content(text));
+        TokenStream lexed = new Lexer(new MappedSource(content(text))).tokenizeAll();
+
+        assertEquals(1, restarted.stats().diskHits());
+        assertEquals(0, restarted.stats().misses());
+        assertArrayEquals(lexed.types(), tokens.types());
+        assertArrayEquals(lexed.offsets(), tokens.offsets());
+        assertArrayEquals(lexed.lengths(), tokens.lengths());
+
+        restarted.tokenize(content(text));
+        assertEquals(1, restarted.stats().hits());
+    }
+
+    @Test
+    void corruptFilesAreLexedAgain() throws IOException {
+        new TokenCache(1 << 20, dir).tokenize(content("a = 1"));
+        try (var files = Files.list(dir)) {
+            Path file = files.findFirst().orElseThrow();
+            Files.write(file, new byte[]{0x54, 0x4B, 0x4E, 0x53, 0, 0, 0, 1, 0, 0, 0, 9});
+        }
+
+        TokenCache cache = new TokenCache(1 << 20, dir);
+        assertEquals(4, cache.tokenize(content("a = 1")).size());
+        assertEquals(0, cache.stats().diskHits());
+        assertEquals(1, cache.stats().misses());
+        assertEquals(0, cache.stats().storeFailures());
+    }
+
+    @Test
+    void failedStoresStillReturnTheTokens() throws IOException {
+        // A file where the directory should be
+        Path blocked = Files.writeString(dir.resolve("blocked"), "");
+        TokenCache cache = new TokenCache(1 << 20, blocked);
+
+        TokenStream tokens = cache.tokenize(content("a = 1"));
+
+        assertEquals(4, tokens.size());
+        assertEquals(1, cache.stats().storeFailures());
+        assertEquals(1, cache.stats().misses());
+
+        // Still kept in memory
+        cache.tokenize(content("a = 1"));
+        assertEquals(1, cache.stats().hits());
+        assertTrue(Files.isRegularFile(blocked));
+    }
+
+    private static ByteBuffer content(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,118 @@
+package edu.fafic.core;
+
+import edu.fafic.token.TokenStream;
+import edu.fafic.token.Type;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IncrementalLexerTest {
+
+    private static final String CODE = """
+            public class Sample {
+                private String name = "hello world";
+                /* block
+                   comment ** / */
+                public void run() {
+                    count += 1; // line comment
+                }
+            }
+            """;
+
+    private static final String[] FRAGMENTS = {" ", "\n", "a", "x1", "1", "1.5", ".", "=", "==", "!", "+", "++",
+            "->", "*", "/", "//", "/*", "*/", "\"", "'", "'a'", "\"s\"", "(", ")", ";", "class", "é", "#"};
+
+    @Test
+    void editInsideBlockComment() {
+        IncrementalLexer lexer = new IncrementalLexer(CODE);
+        int comment = CODE.indexOf("comment **");
+
+        lexer.edit(comment, 0, "long ");
+        assertSameAsFresh(lexer);
+    }
+
+    @Test
+    void editClosingBlockComment() {
+        IncrementalLexer lexer = new IncrementalLexer(CODE);
+        int comment = CODE.indexOf("comment **");
+
+        lexer.edit(comment, 0, "*/ int x = 1; /* ");
+        assertSameAsFresh(lexer);
+        assertEquals(Type.KEYWORD_INT, typeAt(lexer, "int x"));
+
+        lexer.edit(lexer.text().indexOf("*/ int x"), 2, "");
+        assertSameAsFresh(lexer);
+    }
+
+    @Test
+    void editInsideString() {
+        IncrementalLexer lexer = new IncrementalLexer(CODE);
+        int space = CODE.indexOf(" world");
+
+        lexer.edit(space, 0, ",");
+        assertSameAsFresh(lexer);
+
+        lexer.edit(space, 1, "\" + \"");
+        assertSameAsFresh(lexer);
+        assertEquals(Type.LITERAL_STRING, typeAt(lexer, "\"hello\""));
+    }
+
+    @Test
+    void randomEditsMatchFreshLexer() {
+        Random random = new Random(5);
+
+        for (int i = 0; i < 300; i++) {
+            String text = generate(random, random.nextInt(200));
+            IncrementalLexer lexer = new IncrementalLexer(text);
+
+            for (int e = 0; e < 20; e++) {
+                int offset = random.nextInt(text.length() + 1);
+                int removed = random.nextInt(Math.min(5, text.length() - offset) + 1);
+                String inserted = random.nextInt(3) == 0 ? "" : generate(random, 1 + random.nextInt(3));
+
+                lexer.edit(offset, removed, inserted);
+                text = text.substring(0, offset) + inserted + text.substring(offset + removed);
+
+                assertEquals(text, lexer.text());
+                assertEquals(dump(new IncrementalLexer(text)), dump(lexer));
+            }
+        }
+    }
+
+    // The edited text is valid, so the batch lexer must give exactly the same tokens
+    private static void assertSameAsFresh(IncrementalLexer lexer) {
+        TokenStream fresh = new Lexer(new StringReader(lexer.text())).tokenizeAll();
+
+        assertEquals(fresh.size(), lexer.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            assertEquals(fresh.type(i), lexer.type(i), "type of token " + i);
+            assertEquals(fresh.offset(i), lexer.offset(i), "offset of token " + i);
+            assertEquals(fresh.length(i), lexer.length(i), "length of token " + i);
+        }
+    }
+
+    private static Type typeAt(IncrementalLexer lexer, String text) {
+        int offset = lexer.text().indexOf(text);
+        for (int i = 0; i < lexer.size(); i++) {
+            if (lexer.offset(i) == offset) return lexer.type(i);
+        }
+        throw new AssertionError("No token starts at " + offset);
+    }
+
+    private static String generate(Random random, int fragments) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < fragments; i++) text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        return text.toString();
+    }
+
+    private static String dump(IncrementalLexer lexer) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < lexer.size(); i++) {
+            out.append(lexer.type(i)).append(' ').append(lexer.offset(i)).append(',').append(lexer.length(i)).append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package edu.fafic.core;
+
+import edu.fafic.exception.LexicalException;
+import edu.fafic.source.ReaderSource;
+import edu.fafic.token.TokenSpan;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LexerPoolTest {
+
+    private static final String LONG = "int total = 0; /* a long comment */ String s = \"a long string\"; total++;";
+    private static final String SHORT = "x = 1;";
+
+    @Test
+    void releasedLexersAreReused() {
+        LexerPool pool = new LexerPool(1);
+
+        Lexer first = pool.acquire(SHORT);
+        Lexer second = pool.acquire(SHORT);
+        pool.release(first);
+        pool.release(second);
+
+        assertEquals(1, pool.idle());
+        assertSame(first, pool.acquire(LONG));
+        assertEquals(0, pool.idle());
+    }
+
+    @Test
+    void resetLexersMatchFreshOnes() {
+        String comment = "/* a\n b */ c";
+
+        // Left inside a block comment on a later line, after an error, and half way through a longer text
+        List<Consumer<Lexer>> leftovers = List.of(
+                lexer -> {
+                    lexer.reset(comment);
+                    lexer.seekLine(LineIndex.of(chars(comment)), 1);
+                },
+                lexer -> {
+                    lexer.reset("a ` b");
+                    assertThrows(LexicalException.class, lexer::tokenizeAll);
+                },
+                lexer -> {
+                    lexer.reset(new StringReader(LONG + "\n" + LONG));
+                    for (int i = 0; i < 12; i++) lexer.nextSpan();
+                });
+
+        for (Engine engine : Engine.values()) {
+            LexerPool pool = new LexerPool(1, engine);
+            Lexer lexer = pool.acquire("");
+            pool.release(lexer);
+
+            for (Consumer<Lexer> leftover : leftovers) {
+                for (String text : List.of(SHORT, "/* c */ y", LONG)) {
+                    leftover.accept(lexer);
+                    assertSame(lexer, pool.acquire(text));
+                    assertEquals(fresh(text, engine), spans(lexer), engine + " " + text);
+                    pool.release(lexer);
+
+                    leftover.accept(lexer);
+                    assertSame(lexer, pool.acquire(new StringReader(text)));
+                    assertEquals(fresh(text, engine), spans(lexer), engine + " reader " + text);
+                    pool.release(lexer);
+                }
+            }
+        }
+    }
+
+    private static ReaderSource chars(String text) {
+        ReaderSource source = new ReaderSource(new StringReader(""));
+        source.reset(text);
+        return source;
+    }
+
+    private static List<String> fresh(String text, Engine engine) {
+        return spans(new Lexer(new ReaderSource(new StringReader(text)), engine));
+    }
+
+    private static List<String> spans(Lexer lexer) {
+        List<String> spans = new ArrayList<>();
+        TokenSpan span;
+        do {
+            span = lexer.nextSpan();
+            spans.add(span.type() + " " + span.offset() + " " + span.length() + " " + span.lexeme() + " "
+                    + lexer.lines().line(span.offset()));
+        } while (!span.isEOF());
+        return spans;
+    }
+}
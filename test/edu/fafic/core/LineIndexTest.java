@@ -0,0 +1,88 @@
+package edu.fafic.core;
+
+import edu.fafic.source.MappedSource;
+import edu.fafic.token.TokenSpan;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineIndexTest {
+
+    private static final String CODE = """
+            public class Sample {
+                private String name = "não /* é comentário";
+                /* block
+                   comment "with a quote
+                   // and a line comment */ int x = 1;
+                // line comment /*
+                char c = 'x';\r
+                long n = 1_000L;\r\n\
+                /**/ /* one line */ x = y / z;
+            }
+            """;
+
+    @Test
+    void indexesLinesAndBlockComments() {
+        LineIndex index = LineIndex.of(source(CODE));
+        String[] lines = CODE.split("\n|\r\n|\r", -1);
+
+        assertEquals(lines.length, index.lines());
+        assertEquals(0, index.offset(0));
+        assertFalse(index.inBlockComment(2));
+        assertTrue(index.inBlockComment(3));
+        assertTrue(index.inBlockComment(4));
+        assertFalse(index.inBlockComment(5));
+        assertFalse(index.inBlockComment(6));
+    }
+
+    @Test
+    void lexingFromAnyLineMatchesTheWholeLex() {
+        MappedSource whole = source(CODE);
+        Lexer full = new Lexer(whole, Engine.TABLE);
+        List<TokenSpan> expected = spans(full);
+
+        MappedSource source = source(CODE);
+        LineIndex index = LineIndex.of(source);
+
+        for (int line = 0; line < index.lines(); line++) {
+            Lexer lexer = new Lexer(source, Engine.TABLE);
+            lexer.seekLine(index, line);
+            List<TokenSpan> actual = spans(lexer);
+
+            int offset = index.offset(line);
+            List<TokenSpan> rest = expected.stream().filter(span -> span.offset() >= offset).toList();
+
+            assertEquals(rest.size(), actual.size(), "tokens from line " + line);
+            for (int i = 0; i < rest.size(); i++) {
+                TokenSpan want = rest.get(i);
+                TokenSpan got = actual.get(i);
+
+                assertEquals(want.type(), got.type(), "type from line " + line);
+                assertEquals(want.offset(), got.offset(), "offset from line " + line);
+                assertEquals(want.length(), got.length(), "length from line " + line);
+                assertEquals(full.lines().line(want.offset()), lexer.lines().line(got.offset()), "line from line " + line);
+            }
+        }
+    }
+
+    private static List<TokenSpan> spans(Lexer lexer) {
+        List<TokenSpan> spans = new ArrayList<>();
+        TokenSpan span;
+        do {
+            span = lexer.nextSpan();
+            spans.add(span);
+        } while (!span.isEOF());
+        return spans;
+    }
+
+    private static MappedSource source(String text) {
+        return new MappedSource(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
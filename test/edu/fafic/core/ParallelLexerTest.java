@@ -0,0 +1,83 @@
+package edu.fafic.core;
+
+import edu.fafic.source.MappedSource;
+import edu.fafic.token.TokenStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelLexerTest {
+
+    // Four chunks of about 1 MiB each, split at a quarter, half and three quarters of the input
+    private static final int SIZE = 4 << 20;
+
+    private static final String CODE = """
+            for (int i = 0; i < MAX; i++) { count += i; ratio *= 2.0d; name = "a /* b"; c = '"'; }
+            """;
+
+    // Looks like code, strings and comments when a chunk starts in the middle of it
+    private static final String COMMENTED = """
+               int x = "unterminated; // y = 1; /* nested
+            """;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void plainCode() {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < SIZE) text.append(CODE);
+
+        assertSameAsSequential(text.toString());
+    }
+
+    @Test
+    void chunkBoundaryInsideBlockComment() {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < SIZE * 3 / 8) text.append(CODE);
+        text.append("/*\n");
+        while (text.length() < SIZE * 5 / 8) text.append(COMMENTED);
+        text.append("*/\n");
+        while (text.length() < SIZE) text.append(CODE);
+
+        assertSameAsSequential(text.toString());
+    }
+
+    @Test
+    void chunkBoundaryInsideLineComments() {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < SIZE) text.append(CODE).append("// */ \" /*\n");
+
+        assertSameAsSequential(text.toString());
+    }
+
+    private static void assertSameAsSequential(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        TokenStream expected = new Lexer(new MappedSource(ByteBuffer.wrap(bytes))).tokenizeAll();
+        TokenStream actual = new ParallelLexer(pool).tokenize(new MappedSource(ByteBuffer.wrap(bytes)));
+
+        assertTrue(expected.size() > 1);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.type(i), actual.type(i), "type of token " + i);
+            assertEquals(expected.offset(i), actual.offset(i), "offset of token " + i);
+            assertEquals(expected.length(i), actual.length(i), "length of token " + i);
+        }
+    }
+}
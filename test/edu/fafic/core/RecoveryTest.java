@@ -0,0 +1,139 @@
+package edu.fafic.core;
+
+import edu.fafic.exception.LexicalException;
+import edu.fafic.source.MappedSource;
+import edu.fafic.source.ReaderSource;
+import edu.fafic.source.Source;
+import edu.fafic.token.TokenSpan;
+import edu.fafic.token.Type;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecoveryTest {
+
+    @Test
+    void invalidTextBecomesOneTokenAndLexingGoesOn() {
+        Diagnostics diagnostics = new Diagnostics(10);
+        List<TokenSpan> spans = spans(chars("int a = #b; c ` d;"), Engine.TABLE, diagnostics);
+
+        assertEquals(List.of(Type.KEYWORD_INT, Type.IDENTIFIER, Type.ASSIGN, Type.INVALID, Type.SEMICOLON,
+                Type.IDENTIFIER, Type.INVALID, Type.IDENTIFIER, Type.SEMICOLON, Type.EOF), types(spans));
+        assertEquals("#b", spans.get(3).lexeme());
+        assertEquals(2, diagnostics.count());
+        assertEquals(8, diagnostics.list().get(0).offset());
+        assertEquals(2, diagnostics.list().get(0).length());
+        assertEquals(14, diagnostics.list().get(1).offset());
+    }
+
+    @Test
+    void onlyTheFirstDiagnosticsAreKept() {
+        Diagnostics diagnostics = new Diagnostics(2);
+        spans(chars("# # # # #"), Engine.TABLE, diagnostics);
+
+        assertEquals(5, diagnostics.count());
+        assertEquals(2, diagnostics.list().size());
+        assertTrue(diagnostics.isTruncated());
+    }
+
+    @Test
+    void bothEnginesRecoverTheSameWay() {
+        String text = "x = 'ab' + \"open\n y /* c */ 1.x #z; /* never closed";
+        Diagnostics table = new Diagnostics(10);
+        Diagnostics states = new Diagnostics(10);
+
+        assertEquals(spans(chars(text), Engine.STATES, states).toString(), spans(chars(text), Engine.TABLE, table).toString());
+        assertEquals(states.list(), table.list());
+        assertTrue(table.count() > 0);
+    }
+
+    @Test
+    void recoveringPrintsNothing() {
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed));
+        try {
+            spans(chars("a # b"), Engine.TABLE, new Diagnostics(1));
+        } finally {
+            System.setOut(out);
+        }
+        assertEquals("", printed.toString());
+    }
+
+    @Test
+    void malformedUtf8IsInvalidInCode() {
+        Diagnostics diagnostics = new Diagnostics(10);
+        List<TokenSpan> spans = spans(bytes("int a", 0xC3, "b = 1;"), Engine.TABLE, diagnostics);
+
+        assertEquals(List.of(Type.KEYWORD_INT, Type.INVALID, Type.ASSIGN, Type.LITERAL_INTEGER, Type.SEMICOLON,
+                Type.EOF), types(spans));
+        assertEquals(4, spans.get(1).offset());
+        assertEquals(3, spans.get(1).length());
+        assertEquals(List.of(new Diagnostic(4, 3, "Malformed UTF-8 input at byte 5")), diagnostics.list());
+    }
+
+    @Test
+    void malformedUtf8InsideStringsAndComments() {
+        for (Engine engine : Engine.values()) {
+            Diagnostics diagnostics = new Diagnostics(10);
+            List<TokenSpan> spans = spans(bytes("s = \"a", 0xFF, "b\"; /* c", 0xC3, " d */ x // e", 0xE2, 0x82,
+                    " f\ny"), engine, diagnostics);
+
+            // The string ends at the bad byte, the block comment goes on after it, the line comment is skipped
+            assertEquals(List.of(Type.IDENTIFIER, Type.ASSIGN, Type.INVALID, Type.SEMICOLON, Type.INVALID,
+                    Type.IDENTIFIER, Type.INVALID, Type.IDENTIFIER, Type.EOF), types(spans), engine.name());
+            assertEquals("x", spans.get(5).lexeme());
+            assertEquals("y", spans.get(7).lexeme());
+            assertEquals(3, diagnostics.count(), engine.name());
+        }
+    }
+
+    @Test
+    void malformedUtf8StillFailsWithoutDiagnostics() {
+        LexicalException error = assertThrows(LexicalException.class,
+                () -> new Lexer(bytes("a /* ", 0xC3, " */"), Engine.TABLE).tokenizeAll());
+        assertEquals(5, error.offset());
+    }
+
+    private static List<TokenSpan> spans(Source source, Engine engine, Diagnostics diagnostics) {
+        Lexer lexer = new Lexer(source, engine, diagnostics);
+        List<TokenSpan> spans = new ArrayList<>();
+        TokenSpan span;
+        do {
+            span = lexer.nextSpan();
+            spans.add(span);
+        } while (!span.isEOF());
+        return spans;
+    }
+
+    private static List<Type> types(List<TokenSpan> spans) {
+        return spans.stream().map(TokenSpan::type).toList();
+    }
+
+    private static Source chars(String text) {
+        return new ReaderSource(new StringReader(text));
+    }
+
+    // Strings are ASCII, numbers are single bytes
+    private static MappedSource bytes(Object... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Object part : parts) {
+            if (part instanceof String text) {
+                out.writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+            } else {
+                out.write((Integer) part);
+            }
+        }
+        return new MappedSource(ByteBuffer.wrap(out.toByteArray()));
+    }
+}
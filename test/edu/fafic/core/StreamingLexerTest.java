@@ -0,0 +1,196 @@
+package edu.fafic.core;
+
+import edu.fafic.exception.LexicalException;
+import edu.fafic.source.ReaderSource;
+import edu.fafic.token.Token;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingLexerTest {
+
+    private static final String CODE = """
+            public class Sample {
+                private String name = "não é ASCII 𝄞";
+                /* block
+                   comment */ long n = 1_000L; double d = 2.5d;
+                // line comment
+                char c = 'x'; x = y >= z ? a : b;
+            }
+            """;
+
+    @Test
+    void tokensSplitAcrossByteChunks() {
+        byte[] bytes = CODE.getBytes(StandardCharsets.UTF_8);
+
+        for (int size = 1; size <= 7; size++) {
+            List<ByteBuffer> chunks = new ArrayList<>();
+            for (int at = 0; at < bytes.length; at += size) {
+                chunks.add(ByteBuffer.wrap(bytes, at, Math.min(size, bytes.length - at)).slice());
+            }
+
+            Upstream<ByteBuffer> upstream = new Upstream<>(chunks);
+            Downstream downstream = new Downstream(Long.MAX_VALUE);
+            StreamingLexer<ByteBuffer> lexer = StreamingLexer.ofBytes();
+            lexer.subscribe(downstream);
+            lexer.onSubscribe(upstream.feeding(lexer));
+
+            assertTrue(downstream.completed, "chunks of " + size);
+            assertEquals(expected(CODE), downstream.tokens, "chunks of " + size);
+        }
+    }
+
+    @Test
+    void chunksAreOnlyRequestedForDemand() {
+        List<CharBuffer> chunks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) chunks.add(CharBuffer.wrap("a b c d "));
+
+        Upstream<CharBuffer> upstream = new Upstream<>(chunks);
+        Downstream downstream = new Downstream(1);
+        StreamingLexer<CharBuffer> lexer = StreamingLexer.ofChars();
+        lexer.subscribe(downstream);
+        lexer.onSubscribe(upstream.feeding(lexer));
+
+        assertEquals(1, downstream.tokens.size());
+        assertEquals(1, upstream.requested);
+
+        downstream.subscription.request(4);
+        assertEquals(5, downstream.tokens.size());
+        assertEquals(2, upstream.requested);
+    }
+
+    @Test
+    void longCommentsAreNotBuffered() {
+        List<CharBuffer> chunks = new ArrayList<>();
+        chunks.add(CharBuffer.wrap("x /*"));
+        for (int i = 0; i < 2000; i++) chunks.add(CharBuffer.wrap(" ".repeat(1000)));
+        chunks.add(CharBuffer.wrap("*/ y //"));
+        for (int i = 0; i < 2000; i++) chunks.add(CharBuffer.wrap("-".repeat(1000)));
+        chunks.add(CharBuffer.wrap("\nz"));
+
+        Upstream<CharBuffer> upstream = new Upstream<>(chunks);
+        Downstream downstream = new Downstream(Long.MAX_VALUE);
+        StreamingLexer<CharBuffer> lexer = StreamingLexer.ofChars();
+        lexer.subscribe(downstream);
+        lexer.onSubscribe(upstream.feeding(lexer));
+
+        assertEquals(List.of("x", "y", "z", ""), downstream.tokens.stream().map(Token::lexeme).toList());
+        assertTrue(lexer.buffered() <= 8 * 1024, "buffered " + lexer.buffered());
+    }
+
+    @Test
+    void unterminatedLongCommentFailsWhereItBegan() {
+        List<CharBuffer> chunks = new ArrayList<>();
+        chunks.add(CharBuffer.wrap("x /*"));
+        for (int i = 0; i < 2000; i++) chunks.add(CharBuffer.wrap(" ".repeat(1000)));
+
+        Upstream<CharBuffer> upstream = new Upstream<>(chunks);
+        Downstream downstream = new Downstream(Long.MAX_VALUE);
+        StreamingLexer<CharBuffer> lexer = StreamingLexer.ofChars();
+        lexer.subscribe(downstream);
+        lexer.onSubscribe(upstream.feeding(lexer));
+
+        LexicalException error = assertInstanceOf(LexicalException.class, downstream.error);
+        LexicalException whole = failure("x /*" + " ".repeat(2000 * 1000));
+        assertEquals(whole.getMessage(), error.getMessage());
+        assertEquals(2, error.offset());
+        assertTrue(lexer.buffered() <= 8 * 1024, "buffered " + lexer.buffered());
+    }
+
+    private static List<Token> expected(String text) {
+        Lexer lexer = new Lexer(new StringReader(text));
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        do {
+            token = lexer.nextToken();
+            tokens.add(token);
+        } while (!token.isEOF());
+        return tokens;
+    }
+
+    // The error a lexer over the whole text reports, as the exception it would throw
+    private static LexicalException failure(String text) {
+        Diagnostics diagnostics = new Diagnostics(1);
+        new Lexer(new ReaderSource(new StringReader(text)), Engine.STATES, diagnostics).tokenizeAll();
+
+        Diagnostic first = diagnostics.list().get(0);
+        return new LexicalException("Lexing error: " + first.message(), first.offset());
+    }
+
+    // Hands over the next chunk on each request, on the requesting thread, and completes after the last one
+    private static final class Upstream<T extends Buffer> {
+
+        private final List<T> chunks;
+        private int requested;
+
+        private Upstream(List<T> chunks) {
+            this.chunks = chunks;
+        }
+
+        private Flow.Subscription feeding(StreamingLexer<T> lexer) {
+            return new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    for (long i = 0; i < n; i++) {
+                        if (requested == chunks.size()) {
+                            lexer.onComplete();
+                            return;
+                        }
+                        lexer.onNext(chunks.get(requested++));
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                }
+            };
+        }
+    }
+
+    private static final class Downstream implements Flow.Subscriber<Token> {
+
+        private final long initial;
+        private final List<Token> tokens = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private boolean completed;
+        private Throwable error;
+
+        private Downstream(long initial) {
+            this.initial = initial;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initial);
+        }
+
+        @Override
+        public void onNext(Token token) {
+            tokens.add(token);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            assertNull(error);
+            completed = true;
+        }
+    }
+}
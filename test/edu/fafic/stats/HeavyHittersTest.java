@@ -0,0 +1,99 @@
+package edu.fafic.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTest {
+
+    @Test
+    void mergingSketchesWithRoomIsExact() {
+        HeavyHitters left = new HeavyHitters(8);
+        HeavyHitters right = new HeavyHitters(8);
+        add(left, "a", 5);
+        add(left, "b", 2);
+        add(right, "a", 1);
+        add(right, "c", 4);
+
+        left.merge(right);
+
+        assertEquals(List.of(new HeavyHitter("a", 6, 0), new HeavyHitter("c", 4, 0), new HeavyHitter("b", 2, 0)),
+                left.top(8));
+        assertEquals(0, left.min());
+    }
+
+    @Test
+    void mergedCountsKeepTheirBounds() {
+        Random random = new Random(25);
+
+        for (int round = 0; round < 50; round++) {
+            List<HeavyHitters> parts = new ArrayList<>();
+            Map<String, Long> truth = new HashMap<>();
+
+            for (int part = 0; part < 4; part++) {
+                HeavyHitters sketch = new HeavyHitters(16);
+                for (int i = 0; i < 2000; i++) {
+                    // Skewed, so a few names are heavy and many are rare
+                    int rank = random.nextInt(1 << 10);
+                    String name = "n" + rank * rank / 4096;
+                    sketch.add(name);
+                    truth.merge(name, 1L, Long::sum);
+                }
+                parts.add(sketch);
+            }
+
+            HeavyHitters merged = parts.get(0);
+            for (HeavyHitters part : parts.subList(1, parts.size())) merged.merge(part);
+
+            Map<String, HeavyHitter> kept = new HashMap<>();
+            for (HeavyHitter hitter : merged.top(16)) kept.put(hitter.name(), hitter);
+            assertEquals(16, kept.size());
+
+            for (Map.Entry<String, Long> name : truth.entrySet()) {
+                HeavyHitter hitter = kept.get(name.getKey());
+                if (hitter == null) {
+                    assertTrue(name.getValue() <= merged.min(), name.getKey());
+                } else {
+                    assertTrue(hitter.count() >= name.getValue(), name.getKey());
+                    assertTrue(hitter.count() - hitter.error() <= name.getValue(), name.getKey());
+                }
+            }
+
+            // Any name seen more than a sixteenth of the time must have been kept
+            for (Map.Entry<String, Long> name : truth.entrySet()) {
+                if (name.getValue() > 4 * 2000 / 16) assertTrue(kept.containsKey(name.getKey()), name.getKey());
+            }
+        }
+    }
+
+    @Test
+    void mergedSketchesKeepCounting() {
+        HeavyHitters left = new HeavyHitters(2);
+        HeavyHitters right = new HeavyHitters(2);
+        add(left, "a", 3);
+        add(left, "b", 1);
+        add(right, "c", 2);
+        add(right, "d", 1);
+
+        left.merge(right);
+        add(left, "d", 5);
+
+        // d replaced the least counted name and inherited its count as error
+        HeavyHitter d = left.top(2).get(0);
+        assertEquals("d", d.name());
+        assertTrue(d.count() >= 6);
+        assertTrue(d.count() - d.error() <= 6);
+        assertEquals(2, left.size());
+    }
+
+    private static void add(HeavyHitters sketch, String name, int times) {
+        for (int i = 0; i < times; i++) sketch.add(name);
+    }
+}
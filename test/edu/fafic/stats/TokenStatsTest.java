@@ -0,0 +1,70 @@
+package edu.fafic.stats;
+
+import edu.fafic.Main;
+import edu.fafic.core.Engine;
+import edu.fafic.token.Type;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenStatsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void malformedFilesAreCountedAsInvalid() throws IOException {
+        List<Path> files = corpus();
+
+        for (Engine engine : Engine.values()) {
+            TokenStats stats = TokenStats.of(files, engine, 2);
+
+            assertEquals(9, stats.files());
+            assertEquals(8 * 9 + 13, stats.tokens(), engine.name());
+            assertEquals(4, stats.count(Type.INVALID), engine.name());
+            assertEquals(9, stats.count(Type.EOF));
+            assertEquals(new HeavyHitter("count", 17, 0), stats.topIdentifiers().get(0));
+        }
+    }
+
+    @Test
+    void statsRunOverAMalformedFile() throws IOException {
+        List<String> args = new ArrayList<>(List.of("--stats"));
+        for (Path file : corpus()) args.add(file.toString());
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try {
+            Main.main(args.toArray(String[]::new));
+        } finally {
+            System.setOut(out);
+        }
+
+        String report = printed.toString(StandardCharsets.UTF_8);
+        assertTrue(report.startsWith("9 arquivos, "), report);
+        assertTrue(report.contains("INVALID                      4"), report);
+    }
+
+    // Eight good files and, among them, a bad byte in code, in a block comment, in a string and at the end of a file
+    private List<Path> corpus() throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            files.add(Files.writeString(dir.resolve("f" + i + ".code"), "int count = " + i + "; count++;\n"));
+        }
+        byte[] bad = "int bÿ = 1; /* ÿ */ s = \"ÿ\"; count ð".getBytes(StandardCharsets.ISO_8859_1);
+        files.add(3, Files.write(dir.resolve("bad.code"), bad));
+        return files;
+    }
+}
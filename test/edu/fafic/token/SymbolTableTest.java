@@ -0,0 +1,132 @@
+package edu.fafic.token;
+
+import edu.fafic.source.MappedSource;
+import edu.fafic.source.ReaderSource;
+import edu.fafic.source.Source;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SymbolTableTest {
+
+    @Test
+    void localIdsAreDenseAndStable() {
+        assertDenseAndStable(new LocalSymbolTable());
+    }
+
+    @Test
+    void sharedIdsAreDenseAndStable() {
+        assertDenseAndStable(new SharedSymbolTable());
+    }
+
+    @Test
+    void nonAsciiNamesHaveOneIdInEverySource() {
+        for (SymbolTable symbols : List.of(new LocalSymbolTable(), new SharedSymbolTable())) {
+            String text = "ação x açaí";
+            Source bytes = new MappedSource(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+            Source chars = chars(text);
+            int acao = "ação".getBytes(StandardCharsets.UTF_8).length;
+
+            int fromBytes = symbols.intern(bytes, 0, acao);
+            int fromChars = symbols.intern(chars, 0, 4);
+
+            assertEquals(fromBytes, fromChars);
+            assertEquals("ação", symbols.name(fromBytes));
+            assertNotEquals(fromBytes, symbols.intern(chars, 7, 11));
+            assertEquals("açaí", symbols.name(symbols.intern(chars, 7, 11)));
+            assertEquals(symbols.intern(bytes, acao + 1, acao + 2), symbols.intern(chars, 5, 6));
+            assertEquals(3, symbols.size());
+        }
+    }
+
+    @Test
+    void namesOutOfRangeAreRejected() {
+        SymbolTable symbols = new LocalSymbolTable();
+        symbols.intern(chars("a"), 0, 1);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> symbols.name(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> new SharedSymbolTable().name(0));
+    }
+
+    @Test
+    void sharedTableGivesOneIdPerNameAcrossThreads() throws Exception {
+        SymbolTable symbols = new SharedSymbolTable();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) text.append("n").append(i).append(' ');
+        String names = text.toString();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> internAll(symbols, names)));
+            }
+
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) {
+                assertArrayEquals(first, result.get());
+            }
+
+            Set<Integer> ids = new HashSet<>();
+            for (int id : first) ids.add(id);
+            assertEquals(5000, ids.size());
+            assertEquals(5000, symbols.size());
+            for (int i = 0; i < 5000; i++) assertEquals("n" + i, symbols.name(first[i]));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertDenseAndStable(SymbolTable symbols) {
+        Source source = chars("alpha beta alpha gamma beta");
+
+        assertEquals(0, symbols.intern(source, 0, 5));
+        assertEquals(1, symbols.intern(source, 6, 10));
+        assertEquals(0, symbols.intern(source, 11, 16));
+        assertEquals(2, symbols.intern(source, 17, 22));
+        assertEquals(1, symbols.intern(source, 23, 27));
+        assertEquals(3, symbols.size());
+        assertEquals("gamma", symbols.name(2));
+
+        // Growing past the initial capacity keeps every id
+        for (int i = 0; i < 10_000; i++) {
+            Source name = chars("s" + i);
+            assertEquals(3 + i, symbols.intern(name, 0, ("s" + i).length()));
+        }
+        assertEquals(0, symbols.intern(source, 0, 5));
+        assertEquals("s9999", symbols.name(10_002));
+    }
+
+    private static int[] internAll(SymbolTable symbols, String names) {
+        Source source = chars(names);
+        int[] ids = new int[5000];
+        int start = 0;
+        for (int i = 0; i < ids.length; i++) {
+            int end = names.indexOf(' ', start);
+            ids[i] = symbols.intern(source, start, end);
+            start = end + 1;
+        }
+        return ids;
+    }
+
+    // The whole text is in the window, so charAt works before anything is read
+    private static Source chars(String text) {
+        ReaderSource source = new ReaderSource(new StringReader(""));
+        source.reset(text);
+        return source;
+    }
+}
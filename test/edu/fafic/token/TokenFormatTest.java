@@ -0,0 +1,118 @@
+package edu.fafic.token;
+
+import edu.fafic.core.Lexer;
+import edu.fafic.source.MappedSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenFormatTest {
+
+    private static final String CODE = """
+            public class Sample {
+                private String name = "não é ASCII 𝄞";
+                int count = 1_000; count = count + name.length();
+                /* comment */ char c = 'x'; double d = 2.5d;
+            }
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tokensRoundTripThroughAFile() throws IOException {
+        TokenStream tokens = new Lexer(source(CODE)).tokenizeAll();
+        Path file = dir.resolve("sample.tokb");
+        try (TokenWriter writer = new TokenWriter(Files.newOutputStream(file))) {
+            writer.write(tokens);
+        }
+
+        TokenReader reader = TokenReader.open(file);
+        TokenStream.Cursor cursor = tokens.cursor();
+        while (cursor.next()) {
+            assertTrue(reader.next());
+            assertEquals(cursor.type(), reader.type());
+            assertEquals(cursor.offset(), reader.offset());
+            assertEquals(cursor.length(), reader.length());
+            assertEquals(cursor.lexeme(), reader.lexeme());
+        }
+        assertEquals(Type.EOF, reader.type());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    void truncatedFilesAreCorrupt() throws IOException {
+        byte[] bytes = write(CODE);
+
+        for (int size = 5; size < bytes.length; size++) {
+            byte[] prefix = Arrays.copyOf(bytes, size);
+            assertThrows(IOException.class, () -> readAll(prefix), "first " + size + " bytes");
+        }
+        readAll(bytes);
+    }
+
+    @Test
+    void damagedTokensAreCorrupt() throws IOException {
+        // identifier "a" as string 0, then EOF
+        assertEquals(2, readAll(file(Type.IDENTIFIER.ordinal(), 0, 1, 0, 1, 'a', Type.EOF.ordinal(), 0, 0)));
+
+        assertCorrupt(file(Type.values().length, 0, 0), "unknown token type");
+        assertCorrupt(file(Type.IDENTIFIER.ordinal(), 0, 1, 1, 1, 'a', Type.EOF.ordinal(), 0, 0),
+                "string 1 defined before string 0");
+        assertCorrupt(file(Type.IDENTIFIER.ordinal(), 0, 1, 0, 9, 'a', Type.EOF.ordinal(), 0, 0),
+                "runs past the end");
+        assertCorrupt(file(Type.EOF.ordinal(), 0, 0, Type.EOF.ordinal(), 0, 0), "data after EOF");
+        assertCorrupt(file(Type.EOF.ordinal(), 0x80, 0x80, 0x80, 0x80, 0x80, 0x01, 0), "varint out of range");
+        assertCorrupt(file(Type.EOF.ordinal(), 0xFF, 0xFF, 0xFF, 0xFF, 0x0F, 0), "varint out of range");
+        assertCorrupt(file(Type.EOF.ordinal(), 0x80), "truncated varint");
+        assertCorrupt(file(), "it does not end with EOF");
+    }
+
+    private static void assertCorrupt(byte[] bytes, String reason) {
+        IOException error = assertThrows(IOException.class, () -> readAll(bytes));
+        assertTrue(error.getMessage().startsWith("Corrupt token file"), error.getMessage());
+        assertTrue(error.getMessage().contains(reason), error.getMessage());
+    }
+
+    private static int readAll(byte[] bytes) throws IOException {
+        TokenReader reader = new TokenReader(ByteBuffer.wrap(bytes));
+        int count = 0;
+        while (reader.next()) {
+            reader.lexeme();
+            count++;
+        }
+        return count;
+    }
+
+    private static byte[] write(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TokenWriter writer = new TokenWriter(out)) {
+            writer.write(new Lexer(source(text)).tokenizeAll());
+        }
+        return out.toByteArray();
+    }
+
+    // The header and then the given bytes
+    private static byte[] file(int... body) {
+        ByteBuffer bytes = ByteBuffer.allocate(5 + body.length);
+        bytes.putInt(TokenWriter.MAGIC).put((byte) TokenWriter.VERSION);
+        for (int b : body) bytes.put((byte) b);
+        return bytes.array();
+    }
+
+    private static MappedSource source(String text) {
+        return new MappedSource(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}